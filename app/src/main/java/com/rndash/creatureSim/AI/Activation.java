@@ -0,0 +1,85 @@
+package com.rndash.creatureSim.AI;
+
+/**
+ * Activation functions a brain can use for its non input neurons
+ *
+ * All of them are sigmoid curves (Range 0 to 1, 0.5 at an input of 0), they only differ
+ * in how the curve is computed, trading precision for speed.
+ * The error bounds below are the maximum absolute difference to EXACT over all inputs.
+ */
+public enum Activation {
+    /**
+     * Sigmoid computed with Math.exp. Accurate to within a couple of ULPs
+     */
+    EXACT {
+        @Override
+        public double apply(double x) {
+            return 1.0 / (1.0 + Math.exp(-x));
+        }
+    },
+
+    /**
+     * Sigmoid looked up from a table of 2048 segments over [-16, 16], linearly interpolated between entries.
+     * Inputs outside that range saturate to 0 or 1.
+     * Max error is below 3e-6 (Interpolation error is at most h^2/8 * max|sigmoid''|, with h = 1/64)
+     */
+    TABLE {
+        @Override
+        public double apply(double x) {
+            if (x <= -TABLE_RANGE) {
+                return 0;
+            }
+            if (x >= TABLE_RANGE) {
+                return 1;
+            }
+            double pos = (x + TABLE_RANGE) * TABLE_SCALE;
+            int i = (int) pos;
+            double frac = pos - i;
+            return SigmoidTable.VALUES[i] + (SigmoidTable.VALUES[i + 1] - SigmoidTable.VALUES[i]) * frac;
+        }
+    },
+
+    /**
+     * Sigmoid written as 0.5 + 0.5 * tanh(x/2), with tanh replaced by its [7/6] Pade approximant.
+     * No exp, table or branch in the common case, just a division.
+     * Inputs beyond +-9.94 saturate to 0 or 1. Max error is below 5.1e-5
+     */
+    RATIONAL {
+        @Override
+        public double apply(double x) {
+            double y = x * 0.5;
+            if (y >= 4.97) {
+                return 1;
+            }
+            if (y <= -4.97) {
+                return 0;
+            }
+            double y2 = y * y;
+            double tanh = y * (135135 + y2 * (17325 + y2 * (378 + y2))) / (135135 + y2 * (62370 + y2 * (3150 + y2 * 28)));
+            return 0.5 + 0.5 * tanh;
+        }
+    };
+
+    static final double TABLE_RANGE = 16; // Table covers [-TABLE_RANGE, TABLE_RANGE]
+    static final int TABLE_SEGMENTS = 2048; // Number of interpolated segments in the table
+    static final double TABLE_SCALE = TABLE_SEGMENTS / (2 * TABLE_RANGE); // Table positions per unit of input
+
+    /**
+     * Applies the activation function
+     * @param x Neuron input sum
+     * @return Activation result (Range 0 to 1)
+     */
+    public abstract double apply(double x);
+
+    /**
+     * Holder for the sigmoid table, so it is only built if TABLE is actually used
+     */
+    private static final class SigmoidTable {
+        static final double[] VALUES = new double[TABLE_SEGMENTS + 1];
+        static {
+            for (int i = 0; i <= TABLE_SEGMENTS; i++) {
+                VALUES[i] = EXACT.apply(i / TABLE_SCALE - TABLE_RANGE);
+            }
+        }
+    }
+}
@@ -2,24 +2,39 @@ package com.rndash.creatureSim.AI;
 
 import android.graphics.Canvas;
 import android.graphics.Paint;
+import com.rndash.creatureSim.EvolutionConfig;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Represents a creature's brain
  * Sigmoid activated neural network
  *
+ * Cloning is copy-on-write: a clone shares its neurons, connections and compiled plan with the
+ * original, and each side only makes its own copy of the parts a mutation is about to change.
+ * Weight mutations copy the connections, structural mutations copy the neurons as well.
+ * So the lists below may be shared with other brains, and must be treated as read only outside of this class
  */
 public class Brain implements  NetworkRenderable {
     // List of neuron connections within the network
-    public final ArrayList<NeuronConnection> connections;
+    public ArrayList<NeuronConnection> connections;
     public final int inputs; // Number of inputs
     public final int outputs; // Number of outputs
     public int layers; // Number of layers
     public int nextNeuron; // ID of the next neuron in the network (Used for creation only)
-    public final ArrayList<Neuron> nodes; // List of neurons within the network (This generation)
-    public final ArrayList<Neuron> network; // List of neurons within the network (All generations)
+    public ArrayList<Neuron> nodes; // List of neurons within the network (This generation)
+    public ArrayList<Neuron> network; // List of neurons within the network (All generations)
     public int biasNode; // Bias Node ID
+    public Activation activation = Activation.EXACT; // Activation function of non input neurons
+    private Neuron[] neuronTable = new Neuron[0]; // Neurons indexed by their ID, for constant time lookup
+    private NetworkPlan plan; // Compiled network, built by generateNetwork()
+    private double[] activations; // Scratch activation values used when evaluating the plan
+    private Genome genome; // Snapshot of the connection genes. Null when connections have changed since
+    private ConnectionIndex index; // Layer sizes and connected pairs. Built on first use, then kept up to date. Shared along with nodes
+    private boolean ownsIndex = true; // False when index is shared with another brain
+    private boolean ownsNodes = true; // False when nodes (and the neurons in it) are shared with another brain
+    private boolean ownsConnections = true; // False when connections (and the connections in it) are shared with another brain
 
     /**
      * Creates a brain for a creature
@@ -51,18 +66,18 @@ public class Brain implements  NetworkRenderable {
         }
 
         for (int i = 0; i < inputs; i++) {
-            nodes.add(new Neuron(i));
+            this.addNeuron(new Neuron(i));
             this.nextNeuron++;
             this.nodes.get(i).layer = 0;
         }
 
         for (int i = 0; i < outputs; i++) {
-            nodes.add(new Neuron(i+this.inputs));
+            this.addNeuron(new Neuron(i+this.inputs));
             nodes.get(i + this.inputs).layer = this.layers-1;
             this.nextNeuron++;
         }
 
-        this.nodes.add(new Neuron(this.nextNeuron)); // Bias
+        this.addNeuron(new Neuron(this.nextNeuron)); // Bias
         this.biasNode = this.nextNeuron;
         this.nextNeuron++;
         this.nodes.get(this.biasNode).layer = 0;
@@ -74,25 +89,149 @@ public class Brain implements  NetworkRenderable {
      * @return Neuron found. Null is returned should no neuron be found
      */
     public Neuron getNeuron(int number) {
-        for (Neuron n : this.nodes) {
-            if (n.id == number) {
-                return n;
+        if (number < 0 || number >= this.neuronTable.length) {
+            return null;
+        }
+        return this.neuronTable[number];
+    }
+
+    /**
+     * Adds a neuron to the network, and to the ID lookup table
+     * @param n Neuron to add
+     */
+    void addNeuron(Neuron n) {
+        if (n.id >= this.neuronTable.length) {
+            this.neuronTable = Arrays.copyOf(this.neuronTable, Math.max(n.id + 1, this.neuronTable.length * 2));
+        }
+        this.neuronTable[n.id] = n;
+        this.nodes.add(n);
+    }
+
+    /**
+     * Adds a connection, keeping the connections list sorted by innovation number
+     * @param c Connection to add
+     */
+    private void addConnectionGene(NeuronConnection c) {
+        int lo = 0;
+        int hi = this.connections.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (this.connections.get(mid).innovationNumber <= c.innovationNumber) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        this.connections.add(lo, c);
+        this.genesChanged();
+    }
+
+    /**
+     * Drops everything derived from the genes, called whenever a connection or weight changes
+     */
+    private void genesChanged() {
+        this.genome = null;
+        this.plan = null;
+    }
+
+    /**
+     * Makes sure this brain has its own copy of the connections before they are modified.
+     * The copies still point at the same neurons
+     */
+    private void ownConnections() {
+        if (this.ownsConnections) {
+            return;
+        }
+        ArrayList<NeuronConnection> copy = new ArrayList<>(this.connections.size());
+        for (NeuronConnection c : this.connections) {
+            copy.add(c.clone(c.parent, c.child));
+        }
+        this.connections = copy;
+        this.ownsConnections = true;
+    }
+
+    /**
+     * Makes sure this brain has its own copy of the neurons and connections before its structure is modified
+     */
+    private void ownTopology() {
+        if (this.ownsNodes) {
+            this.ownConnections();
+            return;
+        }
+        ArrayList<Neuron> sharedNodes = this.nodes;
+        ArrayList<NeuronConnection> sharedConnections = this.connections;
+        this.nodes = new ArrayList<>(sharedNodes.size() + 1);
+        this.neuronTable = new Neuron[this.neuronTable.length];
+        for (Neuron n : sharedNodes) {
+            this.addNeuron(n.clone());
+        }
+        // Re-add all the connections so they reference this brain's neurons
+        this.connections = new ArrayList<>(sharedConnections.size() + 3);
+        for (NeuronConnection c : sharedConnections) {
+            this.connections.add(c.clone(this.getNeuron(c.parent.id), this.getNeuron(c.child.id)));
+        }
+        this.network = new ArrayList<>();
+        this.ownIndex();
+        this.ownsNodes = true;
+        this.ownsConnections = true;
+        this.plan = null;
+    }
+
+    /**
+     * Returns the connection genes of this brain sorted by innovation number
+     * The snapshot is cached until the connections of the brain change
+     * @return Genome of this brain
+     */
+    public Genome genome() {
+        Genome g = this.genome;
+        if (g == null) {
+            g = new Genome(this.connections);
+            this.genome = g;
+        }
+        return g;
+    }
+
+    /**
+     * Swaps provisional innovation numbers (See StagedInnovations) for the real ones, and re-sorts the connections
+     * @param real Real innovation number of each provisional number p, at index -p - 1
+     */
+    void renumberInnovations(int[] real) {
+        this.ownConnections();
+        for (int i = 0; i < this.connections.size(); i++) {
+            NeuronConnection c = this.connections.get(i);
+            if (c.innovationNumber < 0) {
+                NeuronConnection renumbered = new NeuronConnection(c.parent, c.child, c.weight, real[-c.innovationNumber - 1]);
+                renumbered.enabled = c.enabled;
+                this.connections.set(i, renumbered);
             }
         }
-        return null;
+        this.connections.sort((a, b) -> Integer.compare(a.innovationNumber, b.innovationNumber));
+        this.genesChanged();
     }
 
     /**
-     * Connects all the neurons within the network together with NetworkConnection
+     * Returns the topology index of this brain, building it if needed
+     * @return Index of layer sizes and connected neuron pairs
      */
-    public void connectNeurons() {
-        this.nodes.forEach((Neuron n) -> {
-            n.outputs.clear();
-        });
+    private ConnectionIndex index() {
+        if (this.index == null) {
+            this.index = new ConnectionIndex(this.nodes, this.connections, this.layers);
+            this.ownsIndex = true;
+        }
+        return this.index;
+    }
 
-        for (NeuronConnection connection : this.connections) {
-            connection.parent.outputs.add(connection);
+    /**
+     * Makes sure this brain has its own copy of the index before it is modified
+     */
+    private void ownIndex() {
+        if (this.ownsIndex) {
+            return;
         }
+        if (this.index != null) {
+            this.index = this.index.copy();
+        }
+        this.ownsIndex = true;
     }
 
     /**
@@ -101,39 +240,70 @@ public class Brain implements  NetworkRenderable {
      * @return The outputs of the network
      */
     public ArrayList<Double> feedForward(ArrayList<Double> inputs) {
+        double[] in = new double[this.inputs];
         for (int i = 0; i < this.inputs; i++) {
-            this.nodes.get(i).outputValue = inputs.get(i);
+            in[i] = inputs.get(i);
         }
-        this.nodes.get(this.biasNode).outputValue = 1;
-
-        network.forEach(Neuron::activate);
+        double[] out = new double[this.outputs];
+        this.feedForward(in, out);
         ArrayList<Double> outputs = new ArrayList<>();
-
-        for (int i = 0; i < this.outputs; i++) {
-            outputs.add(this.nodes.get(this.inputs + i).outputValue);
+        for (double d : out) {
+            outputs.add(d);
         }
+        return outputs;
+    }
 
-        for (Neuron node : this.nodes) {
-            node.inputSum = 0;
+    /**
+     * Feed forward through the network without allocating anything
+     * @param in Inputs to feed into the network (At least [inputs] long)
+     * @param out Array to write the network outputs to (At least [outputs] long)
+     */
+    public void feedForward(double[] in, double[] out) {
+        if (this.plan == null || this.activations == null) {
+            this.generateNetwork();
         }
-        return outputs;
+        this.plan.evaluate(in, 0, out, 0, this.activations);
     }
 
     /**
-     * Generates the network for the brain
+     * Generates the network for the brain, and compiles it into a plan for feed forward
+     * Does nothing but make room for the activations if the current plan (Possibly shared with a clone) is still valid
      */
     public void generateNetwork() {
-        this.connectNeurons();
-        this.network.clear();
-        for (int l =0; l < this.layers; l++) { // For each layer
-            for (Neuron node : this.nodes) { // For each node
-                if (node.layer == l) { // If node is in layer
-                    this.network.add(node);
+        if (this.plan == null || this.plan.activation != this.activation) {
+            // Build a new list rather than clearing, the old one may be shared with a clone
+            ArrayList<Neuron> network = new ArrayList<>(this.nodes.size());
+            for (int l =0; l < this.layers; l++) { // For each layer
+                for (Neuron node : this.nodes) { // For each node
+                    if (node.layer == l) { // If node is in layer
+                        network.add(node);
+                    }
                 }
             }
+            this.network = network;
+            this.plan = new NetworkPlan(this.network, this.nodes, this.connections, this.inputs, this.outputs, this.biasNode, this.activation);
+        }
+        if (this.activations == null || this.activations.length < this.plan.neurons) {
+            this.activations = new double[this.plan.neurons];
         }
     }
 
+    /**
+     * Returns the compiled network plan
+     * @return The plan built by the last call to generateNetwork(), or null if there hasn't been one
+     */
+    public NetworkPlan getPlan() {
+        return this.plan;
+    }
+
+    /**
+     * Returns the value of each neuron from the last feed forward, in plan order
+     * @return Activation values, or null if there hasn't been a feed forward
+     */
+    double[] getActivations() {
+        return this.activations;
+    }
+
     /**
      * Returns the innovation number for the new mutation
      *
@@ -144,127 +314,106 @@ public class Brain implements  NetworkRenderable {
      * @param parent Neuron parent (Start of connection)
      * @param child Neuron child (end of connection)
      */
-    public int getInnovationNumber(ArrayList<NeuronConnectionHistory> innovationHistory, Neuron parent, Neuron child) {
-        boolean isNew = true;
-        int connectionNumber = nextNeuron;
-        for (NeuronConnectionHistory neuronConnectionHistory : innovationHistory) {
-            if (neuronConnectionHistory.matches(this, parent, child)) {
-                isNew = false;
-                connectionNumber = neuronConnectionHistory.innovationNumber;
-                break;
-            }
-        }
-        if (isNew) {
-            ArrayList<Integer> innoNumbers = new ArrayList<>();
-            for (NeuronConnection connection : this.connections) {
-                innoNumbers.add(connection.innovationNumber);
-            }
-            innovationHistory.add(new NeuronConnectionHistory(parent, child, connectionNumber, innoNumbers));
-            nextNeuron++;
-        }
-        return connectionNumber;
+    public int getInnovationNumber(InnovationSource innovationHistory, Neuron parent, Neuron child) {
+        return innovationHistory.innovationFor(parent.id, child.id, this.connections);
     }
 
     /**
      * Mutate the network by adding a new node
      * Pick a random connection, disable it, then add 2 new connections at random from the node
      * @param innovationHistory History of mutations within the network (So we don't repeat an existing mutation)
+     * @param random Random number stream
      */
-    public void addNode(ArrayList<NeuronConnectionHistory> innovationHistory) {
+    public void addNode(InnovationSource innovationHistory, RandomSource random) {
         if (this.connections.size() == 0) {
-            this.addConnection(innovationHistory);
+            this.addConnection(innovationHistory, random);
             return;
         }
-        int randomChoice = (int) Math.floor(Math.random() * this.connections.size());
+        this.ownTopology();
+        ConnectionIndex index = this.index();
+        int randomChoice = (int) Math.floor(random.nextDouble() * this.connections.size());
         while (this.connections.get(randomChoice).parent == this.nodes.get(this.biasNode) && this.connections.size() != 1) {
-            randomChoice = (int) Math.floor(Math.random() * this.connections.size());
+            randomChoice = (int) Math.floor(random.nextDouble() * this.connections.size());
         }
-        this.connections.get(randomChoice).enabled = false; // Disable the random connection
+        NeuronConnection old = this.connections.get(randomChoice);
+        old.enabled = false; // Disable the random connection
+        this.genesChanged();
         int newNodeNo = this.nextNeuron;
-        this.nodes.add(new Neuron(newNodeNo));
+        Neuron newNode = new Neuron(newNodeNo);
+        this.addNeuron(newNode);
         this.nextNeuron++;
-        int connectionInnovationNumber = this.getInnovationNumber(innovationHistory, this.connections.get(randomChoice).parent, this.getNeuron(newNodeNo));
-        this.connections.add(new NeuronConnection(this.connections.get(randomChoice).parent, this.getNeuron(newNodeNo), 1, connectionInnovationNumber));
+        int connectionInnovationNumber = this.getInnovationNumber(innovationHistory, old.parent, newNode);
+        this.addConnectionGene(new NeuronConnection(old.parent, newNode, 1, connectionInnovationNumber));
 
 
-        connectionInnovationNumber = this.getInnovationNumber(innovationHistory, this.getNeuron(newNodeNo), this.connections.get(randomChoice).child);
+        connectionInnovationNumber = this.getInnovationNumber(innovationHistory, newNode, old.child);
         //add a new connection from the new node with a weight the same as the disabled connection
-        this.connections.add(new NeuronConnection(this.getNeuron(newNodeNo), this.connections.get(randomChoice).child, this.connections.get(randomChoice).weight, connectionInnovationNumber));
-        this.getNeuron(newNodeNo).layer = this.connections.get(randomChoice).parent.layer + 1;
+        this.addConnectionGene(new NeuronConnection(newNode, old.child, old.weight, connectionInnovationNumber));
+        newNode.layer = old.parent.layer + 1;
 
 
-        connectionInnovationNumber = this.getInnovationNumber(innovationHistory, this.nodes.get(this.biasNode), this.getNeuron(newNodeNo));
+        connectionInnovationNumber = this.getInnovationNumber(innovationHistory, this.nodes.get(this.biasNode), newNode);
         //connect the bias to the new node with a weight of 0
-        this.connections.add(new NeuronConnection(this.nodes.get(this.biasNode), this.getNeuron(newNodeNo), 0, connectionInnovationNumber));
+        this.addConnectionGene(new NeuronConnection(this.nodes.get(this.biasNode), newNode, 0, connectionInnovationNumber));
+        index.connect(old.parent.id, newNode.id);
+        index.connect(newNode.id, old.child.id);
+        index.connect(this.biasNode, newNode.id);
         //if the layer of the new node is equal to the layer of the output node of the old connection then a new layer needs to be created
         //more accurately the layer numbers of all layers equal to or greater than this new node need to be incrimented
-        if (this.getNeuron(newNodeNo).layer == this.connections.get(randomChoice).child.layer) {
+        if (newNode.layer == old.child.layer) {
             for (int i = 0; i < this.nodes.size() - 1; i++) { //dont include this newest node
-                if (this.nodes.get(i).layer >= this.getNeuron(newNodeNo).layer) {
+                if (this.nodes.get(i).layer >= newNode.layer) {
                     this.nodes.get(i).layer++;
                 }
             }
             this.layers++;
+            index.insertLayer(newNode.layer);
         }
-        this.connectNeurons();
-    }
-
-    /**
-     * Checks the new choice for new connection to check if its stupid
-     * @param r1 New neuron 1 ID
-     * @param r2 New neuron 2 ID
-     * @return boolean indicating if the connection is a stupid choice
-     */
-    private boolean isRandomConnectionBad(int r1, int r2) {
-        if (this.nodes.get(r1).layer == this.nodes.get(r2).layer) return true; // Same layer! (Can't connect)
-        if (this.nodes.get(r1).isConnectedTo(this.nodes.get(r2))) return true; // Already connected! (Can't connect)
-        return false;
+        index.addNeuron(newNode.layer);
     }
 
     /**
      * Adds a new random connection to the neural network
+     * The pair is drawn from the pairs of neurons that are not yet connected, so this takes
+     * bounded time however close to fully connected the network is
      * @param innovationHistory History of previous mutations
+     * @param random Random number stream
      */
-    public void addConnection(ArrayList<NeuronConnectionHistory> innovationHistory) {
+    public void addConnection(InnovationSource innovationHistory, RandomSource random) {
         // The network is fully connected. We can't add anything new
         if (this.isFullyConnected()) {
             return;
         }
-        int random1 = (int) Math.floor(Math.random() * this.nodes.size());
-        int random2 = (int) Math.floor(Math.random() * this.nodes.size());
-
-        while(this.isRandomConnectionBad(random1, random2)) {
-            random1 = (int) Math.floor(Math.random() * this.nodes.size());
-            random2 = (int) Math.floor(Math.random() * this.nodes.size());
-        }
-        int temp;
-        // If the first random is bigger than the destination neuron layer, swap them
-        if (this.nodes.get(random1).layer > this.nodes.get(random2).layer) {
-            temp = random2;
-            random2 = random1;
-            random1 = temp;
+        // Only the connections and connected pairs change, the neurons can stay shared
+        this.ownConnections();
+        this.ownIndex();
+        Neuron[] pair = this.index().randomFreePair(this.nodes, random);
+        if (pair == null) {
+            return;
         }
-        int connNumber = this.getInnovationNumber(innovationHistory, this.nodes.get(random1), this.nodes.get(random2));
-        this.connections.add(new NeuronConnection(this.nodes.get(random1), this.nodes.get(random2), Math.random()*2 - 1, connNumber));
-        this.connectNeurons();
+        int connNumber = this.getInnovationNumber(innovationHistory, pair[0], pair[1]);
+        this.addConnectionGene(new NeuronConnection(pair[0], pair[1], random.nextDouble()*2 - 1, connNumber));
+        this.index.connect(pair[0].id, pair[1].id);
     }
 
     /**
      * Fully connect the entire network using all history thats been known
      * @param history Mutation history
+     * @param random Random number stream for the initial weights
      */
-    public void fullyConnect(ArrayList<NeuronConnectionHistory> history) {
+    public void fullyConnect(InnovationSource history, RandomSource random) {
+        this.ownTopology();
         for (int i = 0; i < this.inputs; i++) {
             for (int j = 0; j < this.outputs; j++) {
                 int number = this.getInnovationNumber(history, this.nodes.get(i), this.nodes.get(this.nodes.size() - j - 2));
-                this.connections.add(new NeuronConnection(this.nodes.get(i), this.nodes.get(this.nodes.size() - j - 2), Math.random()*2 -1, number));
+                this.addConnectionGene(new NeuronConnection(this.nodes.get(i), this.nodes.get(this.nodes.size() - j - 2), random.nextDouble()*2 -1, number));
             }
         }
         int number = this.getInnovationNumber(history, this.nodes.get(this.biasNode), this.nodes.get(this.nodes.size() - 2));
-        this.connections.add(new NeuronConnection(this.nodes.get(this.biasNode), this.nodes.get(this.nodes.size() -  2), Math.random()*2 -1, number));
+        this.addConnectionGene(new NeuronConnection(this.nodes.get(this.biasNode), this.nodes.get(this.nodes.size() -  2), random.nextDouble()*2 -1, number));
         number = this.getInnovationNumber(history, this.nodes.get(this.biasNode), this.nodes.get(this.nodes.size() - 3));
-        this.connections.add(new NeuronConnection(this.nodes.get(this.biasNode), this.nodes.get(this.nodes.size() - 3), Math.random()*2 -1, number));
-        this.connectNeurons();
+        this.addConnectionGene(new NeuronConnection(this.nodes.get(this.biasNode), this.nodes.get(this.nodes.size() - 3), random.nextDouble()*2 -1, number));
+        this.index = null; // Rebuilt from the new connections on next use
     }
 
     /**
@@ -272,91 +421,81 @@ public class Brain implements  NetworkRenderable {
      * @return boolean indicating if the network is already fully connected
      */
     public boolean isFullyConnected() {
-        int max = 0;
-        ArrayList<Double> connection = new ArrayList<>();
-        for (int i = 0; i < this.layers; i++) {
-            connection.add(0.0);
-        }
-        for (int i = 0; i < this.nodes.size(); i++) {
-            connection.set(this.nodes.get(i).layer, connection.get(this.nodes.get(i).layer) + 1);
-        }
-        for (int i = 0; i < this.layers - 1; i++) {
-            int nodesInFront = 0;
-            for (int j = i + 1; j < this.layers; j++) {
-                nodesInFront += connection.get(j);
-            }
-            max += connection.get(i) * nodesInFront;
-        }
-        return max == this.connections.size();
+        return this.index().freeConnections() <= 0;
+    }
+
+    /**
+     * Generates a random, not before seen mutation in the brain/network, with the default mutation rates
+     * @param history Mutation history of the network
+     * @param random Random number stream
+     */
+    public void mutate(InnovationSource history, RandomSource random) {
+        this.mutate(history, random, EvolutionConfig.DEFAULT);
     }
 
     /**
      * Generates a random, not before seen mutation in the brain/network
      * @param history Mutation history of the network
+     * @param random Random number stream
+     * @param config Mutation rates
      */
-    public void mutate(ArrayList<NeuronConnectionHistory> history) {
+    public void mutate(InnovationSource history, RandomSource random, EvolutionConfig config) {
         if (this.connections.size() == 0) {
-            this.addConnection(history);
+            this.addConnection(history, random);
         }
-        double rand1 = Math.random();
-        if (rand1 < 0.8) {
+        double rand1 = random.nextDouble();
+        if (rand1 < config.weightMutationRate) {
+            this.ownConnections();
             for (int i = 0; i < this.connections.size(); i++) {
-                this.connections.get(i).mutateWeight();
+                this.connections.get(i).mutateWeight(random, config);
             }
+            this.genesChanged();
         }
-        double rand2 = Math.random();
-        if (rand2 < 0.05) {
-            this.addConnection(history);
-        }
-        double rand3 = Math.random();
-        if (rand3 < 0.01) {
-            this.addNode(history);
+        double rand2 = random.nextDouble();
+        if (rand2 < config.addConnectionRate) {
+            this.addConnection(history, random);
         }
-    }
-
-    /**
-     * Checks if an existing mutation in this network matches a mutation in [b]
-     * @param b Brain to compare with
-     * @param innovationNumber ID of the mutation to check
-     * @return True if the mutations match, false if they don't.
-     */
-    private int matchingGene(Brain b, int innovationNumber) {
-        for (int i = 0; i < b.connections.size(); i++) {
-            if (b.connections.get(i).innovationNumber == innovationNumber) {
-                return i;
-            }
+        double rand3 = random.nextDouble();
+        if (rand3 < config.addNodeRate) {
+            this.addNode(history, random);
         }
-        return -1;
     }
 
     /**
      * Generates a new brain based on this brain and another brain
      * @param parent2 The other parent brain
+     * @param random Random number stream
      * @return a new baby brain
      */
-    public Brain crossover(Brain parent2) {
+    public Brain crossover(Brain parent2, RandomSource random) {
         Brain myBaby = new Brain(this.inputs, this.outputs, true);
         myBaby.connections.clear();
-        myBaby.nodes.clear();
         myBaby.layers = this.layers;
         myBaby.nextNeuron = this.nextNeuron;
         myBaby.biasNode = this.biasNode;
+        myBaby.activation = this.activation;
 
         ArrayList<NeuronConnection> childConnections = new ArrayList<>();
         ArrayList<Boolean> isEnabled = new ArrayList<>();
 
+        // Both parents' connections are sorted by innovation number, so walk them together
+        int parentConnection = 0;
         for (int i = 0; i < this.connections.size(); i++) {
             boolean setEnabled = true;
-            int parentConnection = this.matchingGene(parent2, this.connections.get(i).innovationNumber);
-            if (parentConnection != -1) { // Matching gene found
+            int innovation = this.connections.get(i).innovationNumber;
+            while (parentConnection < parent2.connections.size() && parent2.connections.get(parentConnection).innovationNumber < innovation) {
+                parentConnection++;
+            }
+            boolean matching = parentConnection < parent2.connections.size() && parent2.connections.get(parentConnection).innovationNumber == innovation;
+            if (matching) { // Matching gene found
                 // Either 1 of the parents geners are disabled
                 if (!this.connections.get(i).enabled || !parent2.connections.get(parentConnection).enabled) {
                     // Then give the baby a 75% chance of disabling its gene
-                    if (Math.random() < 0.75) {
+                    if (random.nextDouble() < 0.75) {
                         setEnabled = false;
                     }
                 }
-                double rand1 = Math.random();
+                double rand1 = random.nextDouble();
                 if (rand1 < 0.5) {
                     childConnections.add(this.connections.get(i));
                 } else {
@@ -368,54 +507,71 @@ public class Brain implements  NetworkRenderable {
             }
             isEnabled.add(setEnabled);
         }
-        for (int i = 0; i < this.nodes.size(); i++) {
-            myBaby.nodes.add(this.nodes.get(i).clone());
-        }
+        // The baby has exactly this parent's structure, so it shares this parent's neurons until it mutates
+        myBaby.nodes = this.nodes;
+        myBaby.neuronTable = this.neuronTable;
+        myBaby.index = this.index; // Same neurons and the same connected pairs
+        myBaby.ownsNodes = false;
+        myBaby.ownsIndex = false;
+        this.shareNodes();
         for (int i = 0; i < childConnections.size(); i++) {
             myBaby.connections.add(childConnections.get(i).clone(myBaby.getNeuron(childConnections.get(i).parent.id), myBaby.getNeuron(childConnections.get(i).child.id)));
             myBaby.connections.get(i).enabled = isEnabled.get(i);
         }
-
-        myBaby.connectNeurons(); // Connect neurons in the baby
         return myBaby;
     }
 
     /**
      * Clones this brain into a new brain object
-     * JVM doesn't support cloning, so it has to be done manually like this
+     * This is O(1), the clone shares everything with this brain until either of them mutates
      * @return Clone of this brain
      */
     public Brain clone() {
         Brain clone = new Brain(this.inputs, this.outputs, true);
-        // Copy all this brains nodes into the clone
-        for (int i = 0; i < this.nodes.size(); i++) {
-            clone.nodes.add(this.nodes.get(i).clone());
-        }
-
-        //copy all the connections from this brain into the clone brain,
-        //However do it by re-adding all the connections so that the clone brain's connections
-        //Now reference the clone brain's neurons, and not this one
-        for (int i = 0; i < this.connections.size(); i++) {
-            clone.connections.add(this.connections.get(i).clone(clone.getNeuron(this.connections.get(i).parent.id), clone.getNeuron(this.connections.get(i).child.id)));
-        }
+        clone.nodes = this.nodes;
+        clone.neuronTable = this.neuronTable;
+        clone.connections = this.connections;
+        clone.network = this.network;
+        clone.plan = this.plan;
+        clone.genome = this.genome;
+        clone.index = this.index;
         clone.layers = this.layers;
         clone.nextNeuron = this.nextNeuron;
         clone.biasNode = this.biasNode;
-        clone.connectNeurons();
+        clone.activation = this.activation;
+        clone.ownsNodes = false;
+        clone.ownsConnections = false;
+        clone.ownsIndex = false;
+        this.markShared();
         return clone;
     }
 
-    @Override
-    public void render(Canvas c, Paint p, int x, int y, int h, int w) {
-        for (Neuron n : nodes) {
-            n.render(c, p, x + (n.layer * 200), y + (n.id/(n.layer+1) * (20)), 0, 20);
+    /**
+     * Marks the genes of this brain as shared with another brain, so they are copied before this brain changes them
+     * Crossover and clone only write to a parent that is not marked yet, so once marked, a brain can be bred from on
+     * several threads at once
+     */
+    public void markShared() {
+        this.shareNodes();
+        if (this.ownsConnections) {
+            this.ownsConnections = false;
         }
-        for (NeuronConnection n : this.connections) {
-            int parent_x = x + n.parent.layer * 200;
-            int child_x = x + n.child.layer * 200;
-            int parent_y = y + (n.parent.id/(n.parent.layer+1) * 20);
-            int child_y = y + (n.child.id/(n.child.layer+1) * 20);
-            n.render(c, p, parent_x, parent_y, child_x, child_y);
+    }
+
+    private void shareNodes() {
+        if (this.ownsNodes) {
+            this.ownsNodes = false;
+        }
+        if (this.ownsIndex) {
+            this.ownsIndex = false;
         }
     }
+
+    @Override
+    public void render(Canvas c, Paint p, int x, int y, int h, int w) {
+        // Must be on the thread running this brain. Other threads should draw a NetworkSnapshot of it instead
+        NetworkSnapshot snapshot = new NetworkSnapshot();
+        snapshot.capture(this);
+        snapshot.render(c, p, x, y, h, w);
+    }
 }
@@ -0,0 +1,177 @@
+package com.rndash.creatureSim.AI;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Evaluates the networks of many brains in a single pass
+ *
+ * Every brain in the batch must have the same number of inputs and outputs (True for a
+ * population, as all creatures share one blueprint), and the same activation function.
+ * The plans of all brains are fused into one set of flat arrays by compile(), and each
+ * call to evaluate() then sweeps the rows of the input matrix, writing one row of the
+ * output matrix per brain.
+ *
+ * Inputs for row r live at in[r * inputs] onwards, and outputs at out[r * outputs] onwards.
+ */
+public final class BrainBatch {
+    public final int inputs; // Inputs per brain
+    public final int outputs; // Outputs per brain
+    public final Activation activation; // Activation function shared by all brains
+    public double[] in = new double[0]; // Input matrix [row x inputs]
+    public double[] out = new double[0]; // Output matrix [row x outputs]
+    private int[] rowBrain = new int[0]; // Brain index each row is evaluated with
+    private int brains = 0; // Number of compiled brains
+
+    // Fused plans. Neuron and edge indices are absolute into values / edge arrays
+    private int[] neuronStart = new int[1]; // First neuron of each brain (size brains+1)
+    private int[] firstActivated = new int[0]; // First non layer 0 neuron of each brain
+    private int[] biasIndex = new int[0]; // Bias neuron of each brain, or -1
+    private int[] inputIndex = new int[0]; // [brain x inputs]
+    private int[] outputIndex = new int[0]; // [brain x outputs]
+    private int[] edgeStart = new int[1]; // First edge of each brain (size brains+1)
+    private int[] edgeSource = new int[0];
+    private int[] edgeTarget = new int[0];
+    private double[] edgeWeight = new double[0];
+    private double[] values = new double[0]; // Scratch activation values for every neuron
+
+    public BrainBatch(int inputs, int outputs, Activation activation) {
+        this.inputs = inputs;
+        this.outputs = outputs;
+        this.activation = activation;
+    }
+
+    /**
+     * Fuses the plans of the given brains into the batch. Brain i is then referred to as index i.
+     * Arrays are only reallocated when they need to grow
+     * @param list Brains to compile. Each must have had generateNetwork() called
+     */
+    public void compile(List<Brain> list) {
+        this.brains = list.size();
+        int totalNeurons = 0;
+        int totalEdges = 0;
+        for (Brain b : list) {
+            NetworkPlan plan = b.getPlan();
+            if (plan == null) {
+                b.generateNetwork();
+                plan = b.getPlan();
+            }
+            totalNeurons += plan.neurons;
+            totalEdges += plan.edgeSource.length;
+        }
+        if (this.neuronStart.length < this.brains + 1) {
+            this.neuronStart = new int[this.brains + 1];
+            this.edgeStart = new int[this.brains + 1];
+            this.firstActivated = new int[this.brains];
+            this.biasIndex = new int[this.brains];
+            this.inputIndex = new int[this.brains * this.inputs];
+            this.outputIndex = new int[this.brains * this.outputs];
+        }
+        if (this.values.length < totalNeurons) {
+            this.values = new double[totalNeurons];
+        }
+        if (this.edgeSource.length < totalEdges) {
+            this.edgeSource = new int[totalEdges];
+            this.edgeTarget = new int[totalEdges];
+            this.edgeWeight = new double[totalEdges];
+        }
+
+        int neuron = 0;
+        int edge = 0;
+        for (int b = 0; b < this.brains; b++) {
+            NetworkPlan plan = list.get(b).getPlan();
+            this.neuronStart[b] = neuron;
+            this.edgeStart[b] = edge;
+            this.firstActivated[b] = neuron + plan.firstActivated;
+            this.biasIndex[b] = plan.biasIndex == -1 ? -1 : neuron + plan.biasIndex;
+            for (int i = 0; i < this.inputs; i++) {
+                this.inputIndex[b * this.inputs + i] = neuron + plan.inputIndex[i];
+            }
+            for (int i = 0; i < this.outputs; i++) {
+                this.outputIndex[b * this.outputs + i] = neuron + plan.outputIndex[i];
+            }
+            for (int e = 0; e < plan.edgeSource.length; e++) {
+                this.edgeSource[edge + e] = neuron + plan.edgeSource[e];
+                this.edgeTarget[edge + e] = neuron + plan.edgeTarget[e];
+                this.edgeWeight[edge + e] = plan.edgeWeight[e];
+            }
+            neuron += plan.neurons;
+            edge += plan.edgeSource.length;
+        }
+        this.neuronStart[this.brains] = neuron;
+        this.edgeStart[this.brains] = edge;
+    }
+
+    /**
+     * Makes sure the input and output matrices can hold the given number of rows
+     * @param rows Number of rows that will be evaluated
+     */
+    public void ensureRows(int rows) {
+        if (this.rowBrain.length < rows) {
+            this.rowBrain = new int[rows];
+            this.in = Arrays.copyOf(this.in, rows * this.inputs);
+            this.out = Arrays.copyOf(this.out, rows * this.outputs);
+        }
+    }
+
+    /**
+     * Sets which brain evaluates a row of the input matrix
+     * @param row Row number
+     * @param brain Index of the brain as passed to compile()
+     */
+    public void setRow(int row, int brain) {
+        this.rowBrain[row] = brain;
+    }
+
+    /**
+     * Copies the value of each neuron of a brain, from the last row it evaluated
+     * @param brain Index of the brain as passed to compile()
+     * @param dest Array to copy the values to, in the order of the brain's plan
+     * @param offset Index in dest to copy the first value to
+     */
+    public void copyValues(int brain, double[] dest, int offset) {
+        int first = this.neuronStart[brain];
+        System.arraycopy(this.values, first, dest, offset, this.neuronStart[brain + 1] - first);
+    }
+
+    /**
+     * Feeds forward every row of the input matrix through its brain
+     * @param rows Number of rows to evaluate
+     */
+    public void evaluate(int rows) {
+        final Activation activation = this.activation;
+        final double[] values = this.values;
+        final int[] edgeSource = this.edgeSource;
+        final int[] edgeTarget = this.edgeTarget;
+        final double[] edgeWeight = this.edgeWeight;
+        for (int r = 0; r < rows; r++) {
+            int b = this.rowBrain[r];
+            int firstNeuron = this.neuronStart[b];
+            int lastNeuron = this.neuronStart[b + 1];
+            Arrays.fill(values, firstNeuron, lastNeuron, 0);
+            for (int i = 0; i < this.inputs; i++) {
+                values[this.inputIndex[b * this.inputs + i]] = this.in[r * this.inputs + i];
+            }
+            if (this.biasIndex[b] != -1) {
+                values[this.biasIndex[b]] = 1;
+            }
+            int activated = this.firstActivated[b];
+            int e = this.edgeStart[b];
+            int lastEdge = this.edgeStart[b + 1];
+            for (int n = firstNeuron; n < lastNeuron; n++) {
+                double v = values[n];
+                if (n >= activated) {
+                    v = activation.apply(v);
+                    values[n] = v;
+                }
+                while (e < lastEdge && edgeSource[e] == n) {
+                    values[edgeTarget[e]] += edgeWeight[e] * v;
+                    e++;
+                }
+            }
+            for (int i = 0; i < this.outputs; i++) {
+                this.out[r * this.outputs + i] = values[this.outputIndex[b * this.outputs + i]];
+            }
+        }
+    }
+}
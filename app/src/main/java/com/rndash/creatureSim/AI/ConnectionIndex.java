@@ -0,0 +1,191 @@
+package com.rndash.creatureSim.AI;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Bookkeeping of a brain's topology, kept up to date as the brain mutates
+ *
+ * Holds the number of neurons in each layer, and for each neuron the neurons it already
+ * has a connection with (Enabled or not) and how many there are. This makes checking if the
+ * brain is fully connected constant time, and lets a new connection be drawn straight from
+ * the pairs that are still free, rather than guessing random pairs until one happens to be valid.
+ */
+final class ConnectionIndex {
+    private int[] layerSizes; // Number of neurons in each layer
+    private int neurons; // Total number of neurons
+    private long sumOfSquares; // Sum of the square of each layer size
+    private long[][] adjacent; // Bitset of the neurons each neuron is connected to (In either direction), by neuron ID
+    private int[] degree; // Number of neurons each neuron is connected to, by neuron ID
+    private int pairs; // Number of connected neuron pairs
+
+    /**
+     * Builds the index for a brain
+     * @param nodes Neurons of the brain
+     * @param connections Connections of the brain
+     * @param layers Number of layers in the brain
+     */
+    ConnectionIndex(ArrayList<Neuron> nodes, ArrayList<NeuronConnection> connections, int layers) {
+        this.layerSizes = new int[layers];
+        for (Neuron n : nodes) {
+            this.addNeuron(n.layer);
+        }
+        int maxId = 0;
+        for (Neuron n : nodes) {
+            maxId = Math.max(maxId, n.id);
+        }
+        this.adjacent = new long[maxId + 1][];
+        this.degree = new int[maxId + 1];
+        for (NeuronConnection c : connections) {
+            this.connect(c.parent.id, c.child.id);
+        }
+    }
+
+    /**
+     * Copy constructor, for when a brain stops sharing its index
+     * @param other Index to copy
+     */
+    private ConnectionIndex(ConnectionIndex other) {
+        this.layerSizes = other.layerSizes.clone();
+        this.neurons = other.neurons;
+        this.sumOfSquares = other.sumOfSquares;
+        this.adjacent = new long[other.adjacent.length][];
+        for (int i = 0; i < this.adjacent.length; i++) {
+            if (other.adjacent[i] != null) {
+                this.adjacent[i] = other.adjacent[i].clone();
+            }
+        }
+        this.degree = other.degree.clone();
+        this.pairs = other.pairs;
+    }
+
+    /**
+     * Returns a copy of this index that can be modified independently
+     * @return Copy of this index
+     */
+    ConnectionIndex copy() {
+        return new ConnectionIndex(this);
+    }
+
+    /**
+     * Records a new neuron
+     * @param layer Layer the neuron is in
+     */
+    void addNeuron(int layer) {
+        if (layer >= this.layerSizes.length) {
+            this.layerSizes = Arrays.copyOf(this.layerSizes, layer + 1);
+        }
+        this.sumOfSquares += 2L * this.layerSizes[layer] + 1;
+        this.layerSizes[layer]++;
+        this.neurons++;
+    }
+
+    /**
+     * Records a new, empty layer. Every layer at or after it moves up by one
+     * @param layer Layer number of the new layer
+     */
+    void insertLayer(int layer) {
+        int[] sizes = new int[this.layerSizes.length + 1];
+        System.arraycopy(this.layerSizes, 0, sizes, 0, layer);
+        System.arraycopy(this.layerSizes, layer, sizes, layer + 1, this.layerSizes.length - layer);
+        this.layerSizes = sizes;
+    }
+
+    /**
+     * Records a new connection
+     * @param parent ID of the start neuron
+     * @param child ID of the end neuron
+     */
+    void connect(int parent, int child) {
+        if (this.isConnected(parent, child)) {
+            return;
+        }
+        int size = Math.max(parent, child) + 1;
+        if (size > this.degree.length) {
+            this.adjacent = Arrays.copyOf(this.adjacent, size);
+            this.degree = Arrays.copyOf(this.degree, size);
+        }
+        this.setBit(parent, child);
+        this.setBit(child, parent);
+        this.degree[parent]++;
+        this.degree[child]++;
+        this.pairs++;
+    }
+
+    private void setBit(int from, int to) {
+        long[] row = this.adjacent[from];
+        int word = to >>> 6;
+        if (row == null) {
+            row = new long[Math.max(word + 1, (this.degree.length + 63) >>> 6)];
+        } else if (word >= row.length) {
+            row = Arrays.copyOf(row, word + 1);
+        }
+        row[word] |= 1L << to;
+        this.adjacent[from] = row;
+    }
+
+    /**
+     * Checks if 2 neurons are connected, in either direction
+     * @param a ID of the first neuron
+     * @param b ID of the second neuron
+     * @return True if there is a connection between them
+     */
+    boolean isConnected(int a, int b) {
+        if (a >= this.adjacent.length || this.adjacent[a] == null) {
+            return false;
+        }
+        long[] row = this.adjacent[a];
+        int word = b >>> 6;
+        return word < row.length && (row[word] & (1L << b)) != 0;
+    }
+
+    /**
+     * Returns how many connections the brain could have. Every neuron can connect to every neuron in another layer
+     * @return Maximum number of connections
+     */
+    long maxConnections() {
+        return ((long) this.neurons * this.neurons - this.sumOfSquares) / 2;
+    }
+
+    /**
+     * Returns how many more connections can be added
+     * @return Number of neuron pairs in different layers that are not connected
+     */
+    long freeConnections() {
+        return this.maxConnections() - this.pairs;
+    }
+
+    /**
+     * Picks a pair of neurons that can be connected, uniformly from all such pairs.
+     * Each neuron can still connect to every neuron outside its layer that it is not yet connected
+     * to, so the k'th free pair is found by walking the neurons once to find whose count it falls
+     * in, then walking that neuron's partners once. Every free pair is counted from both ends
+     * @param nodes Neurons of the brain
+     * @param random Random number stream
+     * @return The pair, lowest layer first, or null if the network is fully connected
+     */
+    Neuron[] randomFreePair(ArrayList<Neuron> nodes, RandomSource random) {
+        long free = this.freeConnections();
+        if (free <= 0) {
+            return null;
+        }
+        long choice = (long) (random.nextDouble() * 2 * free);
+        for (Neuron a : nodes) {
+            long partners = this.neurons - this.layerSizes[a.layer] - (a.id < this.degree.length ? this.degree[a.id] : 0);
+            if (choice >= partners) {
+                choice -= partners;
+                continue;
+            }
+            for (Neuron b : nodes) {
+                if (b.layer != a.layer && !this.isConnected(a.id, b.id) && choice-- == 0) {
+                    return ordered(a, b);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Neuron[] ordered(Neuron a, Neuron b) {
+        return a.layer < b.layer ? new Neuron[] {a, b} : new Neuron[] {b, a};
+    }
+}
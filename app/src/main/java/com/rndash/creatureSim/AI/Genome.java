@@ -0,0 +1,42 @@
+package com.rndash.creatureSim.AI;
+
+import java.util.List;
+
+/**
+ * Connection genes of a brain, sorted by innovation number, in primitive arrays
+ *
+ * Because both genomes of a comparison are sorted, matching genes can be lined up
+ * with a single merge walk rather than searching one genome for every gene of the other.
+ * A genome is a snapshot, see Brain.genome() for getting an up to date one.
+ *
+ * Each genome carries a hash of all its genes, so an unchanged genome (Such as a clone's, or
+ * a species representative's) can be recognised without comparing it gene by gene.
+ */
+public final class Genome {
+    public final int size; // Number of genes
+    public final int[] innovations; // Innovation number of each gene (Ascending)
+    public final double[] weights; // Weight of each gene
+    public final boolean[] enabled; // Is each gene enabled
+    public final long hash; // Hash of every gene. Genomes with the same genes have the same hash
+
+    /**
+     * Takes a snapshot of a brain's connections
+     * @param connections Connections, already sorted by innovation number
+     */
+    Genome(List<NeuronConnection> connections) {
+        this.size = connections.size();
+        this.innovations = new int[this.size];
+        this.weights = new double[this.size];
+        this.enabled = new boolean[this.size];
+        long hash = this.size;
+        for (int i = 0; i < this.size; i++) {
+            NeuronConnection c = connections.get(i);
+            this.innovations[i] = c.innovationNumber;
+            this.weights[i] = c.weight;
+            this.enabled[i] = c.enabled;
+            hash = InnovationHistory.mix(hash ^ c.innovationNumber ^ (c.enabled ? 1L << 32 : 0));
+            hash = InnovationHistory.mix(hash ^ Double.doubleToLongBits(c.weight));
+        }
+        this.hash = hash;
+    }
+}
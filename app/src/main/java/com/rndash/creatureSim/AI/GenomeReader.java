@@ -0,0 +1,156 @@
+package com.rndash.creatureSim.AI;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+
+/**
+ * Reads brains written by a GenomeWriter back from a channel
+ * See GenomeWriter for the layout of the stream
+ */
+public final class GenomeReader implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ReadableByteChannel channel; // Channel being read from
+    private final ByteBuffer buffer; // Bytes read but not yet used
+    private final boolean doubleWeights; // Are weights stored as doubles
+    private boolean endOfStream = false; // Has the channel run out
+
+    /**
+     * Creates a reader and checks the stream header
+     * @param channel Channel to read from
+     * @throws IOException If the channel could not be read, or does not hold brains
+     */
+    public GenomeReader(ReadableByteChannel channel) throws IOException {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        this.buffer.limit(0);
+        if (!this.fill(6) || this.buffer.getInt() != GenomeWriter.MAGIC) {
+            throw new IOException("Not a genome stream");
+        }
+        byte version = this.buffer.get();
+        if (version != GenomeWriter.VERSION) {
+            throw new IOException("Unsupported genome stream version " + version);
+        }
+        this.doubleWeights = (this.buffer.get() & GenomeWriter.FLAG_DOUBLE_WEIGHTS) != 0;
+    }
+
+    /**
+     * Reads the next brain
+     * @return The brain, with its network generated. Null if there are no more brains in the stream
+     * @throws IOException If the channel could not be read, or the stream is cut short
+     */
+    public Brain read() throws IOException {
+        if (!this.fill(1)) {
+            return null;
+        }
+        int inputs = this.getVarint();
+        int outputs = this.getVarint();
+        Brain brain = new Brain(inputs, outputs, true);
+        brain.layers = this.getVarint();
+        brain.nextNeuron = this.getVarint();
+        brain.biasNode = this.getVarint();
+        int activation = this.getVarint();
+        if (activation >= Activation.values().length) {
+            throw new IOException("Unknown activation " + activation);
+        }
+        brain.activation = Activation.values()[activation];
+
+        int neurons = this.getVarint();
+        for (int i = 0; i < neurons; i++) {
+            Neuron n = new Neuron(this.getVarint());
+            n.layer = this.getVarint();
+            brain.addNeuron(n);
+        }
+
+        int connections = this.getVarint();
+        brain.connections.ensureCapacity(connections);
+        int innovation = 0;
+        for (int i = 0; i < connections; i++) {
+            innovation += this.getVarint();
+            Neuron parent = brain.getNeuron(this.getVarint());
+            Neuron child = brain.getNeuron(this.getVarint());
+            if (parent == null || child == null) {
+                throw new IOException("Connection to a missing neuron");
+            }
+            this.require(this.doubleWeights ? 8 : 4);
+            double weight = this.doubleWeights ? this.buffer.getDouble() : this.buffer.getFloat();
+            brain.connections.add(new NeuronConnection(parent, child, weight, innovation));
+        }
+        int bits = 0;
+        for (int i = 0; i < connections; i++) {
+            if ((i & 7) == 0) {
+                this.require(1);
+                bits = this.buffer.get();
+            }
+            brain.connections.get(i).enabled = (bits & (1 << (i & 7))) != 0;
+        }
+        brain.generateNetwork();
+        return brain;
+    }
+
+    /**
+     * Reads every remaining brain in the stream
+     * @return The brains, in the order they were written
+     * @throws IOException If the channel could not be read, or the stream is cut short
+     */
+    public ArrayList<Brain> readAll() throws IOException {
+        ArrayList<Brain> brains = new ArrayList<>();
+        Brain b;
+        while ((b = this.read()) != null) {
+            brains.add(b);
+        }
+        return brains;
+    }
+
+    /**
+     * Closes the channel
+     * @throws IOException If the channel could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    /**
+     * Reads from the channel until the buffer holds at least the given number of bytes
+     * @param bytes Bytes needed
+     * @return False if the channel ran out first
+     */
+    private boolean fill(int bytes) throws IOException {
+        if (this.buffer.remaining() >= bytes) {
+            return true;
+        }
+        this.buffer.compact();
+        while (this.buffer.position() < bytes && !this.endOfStream) {
+            if (this.channel.read(this.buffer) == -1) {
+                this.endOfStream = true;
+            }
+        }
+        this.buffer.flip();
+        return this.buffer.remaining() >= bytes;
+    }
+
+    private void require(int bytes) throws IOException {
+        if (!this.fill(bytes)) {
+            throw new EOFException("Genome stream ended part way through a brain");
+        }
+    }
+
+    private int getVarint() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            this.require(1);
+            byte b = this.buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,145 @@
+package com.rndash.creatureSim.AI;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+/**
+ * Writes brains to a channel in a compact binary form, one after another
+ *
+ * Stream layout:
+ *   header: magic "NEAT", version byte, flags byte (bit 0 set = weights are doubles, otherwise floats)
+ *   then one record per brain:
+ *     inputs, outputs, layers, nextNeuron, biasNode, activation ordinal (varints)
+ *     neuron count (varint), then for each neuron its ID and layer (varints)
+ *     connection count (varint), then for each connection, in innovation number order:
+ *       innovation number as the difference from the previous one, parent ID, child ID (varints)
+ *       weight (float or double)
+ *     enabled bits of all connections, packed 8 per byte
+ *
+ * Varints are unsigned LEB128, so most numbers take a single byte.
+ * Writes go through a buffer, call flush() or close() to make sure everything reaches the channel.
+ */
+public final class GenomeWriter implements Closeable {
+    static final int MAGIC = 0x4E454154; // "NEAT"
+    static final byte VERSION = 1;
+    static final byte FLAG_DOUBLE_WEIGHTS = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final WritableByteChannel channel; // Channel being written to
+    private final ByteBuffer buffer; // Pending bytes
+    private final boolean doubleWeights; // Write weights at full precision
+
+    /**
+     * Creates a writer and writes the stream header
+     * @param channel Channel to write to
+     * @param doubleWeights True to write weights as doubles, false to halve their size by writing floats
+     * @throws IOException If the header could not be written
+     */
+    public GenomeWriter(WritableByteChannel channel, boolean doubleWeights) throws IOException {
+        this.channel = channel;
+        this.doubleWeights = doubleWeights;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        this.buffer.putInt(MAGIC);
+        this.buffer.put(VERSION);
+        this.buffer.put(doubleWeights ? FLAG_DOUBLE_WEIGHTS : 0);
+    }
+
+    /**
+     * Writes a brain
+     * @param brain Brain to write
+     * @throws IOException If the channel could not be written to
+     */
+    public void write(Brain brain) throws IOException {
+        this.putVarint(brain.inputs);
+        this.putVarint(brain.outputs);
+        this.putVarint(brain.layers);
+        this.putVarint(brain.nextNeuron);
+        this.putVarint(brain.biasNode);
+        this.putVarint(brain.activation.ordinal());
+
+        this.putVarint(brain.nodes.size());
+        for (Neuron n : brain.nodes) {
+            this.putVarint(n.id);
+            this.putVarint(n.layer);
+        }
+
+        List<NeuronConnection> connections = brain.connections;
+        this.putVarint(connections.size());
+        int lastInnovation = 0;
+        for (NeuronConnection c : connections) {
+            this.putVarint(c.innovationNumber - lastInnovation);
+            lastInnovation = c.innovationNumber;
+            this.putVarint(c.parent.id);
+            this.putVarint(c.child.id);
+            this.ensure(8);
+            if (this.doubleWeights) {
+                this.buffer.putDouble(c.weight);
+            } else {
+                this.buffer.putFloat((float) c.weight);
+            }
+        }
+        int bits = 0;
+        for (int i = 0; i < connections.size(); i++) {
+            if (connections.get(i).enabled) {
+                bits |= 1 << (i & 7);
+            }
+            if ((i & 7) == 7 || i == connections.size() - 1) {
+                this.ensure(1);
+                this.buffer.put((byte) bits);
+                bits = 0;
+            }
+        }
+    }
+
+    /**
+     * Writes a list of brains, such as every brain of a population
+     * @param brains Brains to write
+     * @throws IOException If the channel could not be written to
+     */
+    public void writeAll(List<Brain> brains) throws IOException {
+        for (Brain b : brains) {
+            this.write(b);
+        }
+    }
+
+    /**
+     * Writes all buffered bytes to the channel
+     * @throws IOException If the channel could not be written to
+     */
+    public void flush() throws IOException {
+        this.buffer.flip();
+        while (this.buffer.hasRemaining()) {
+            this.channel.write(this.buffer);
+        }
+        this.buffer.clear();
+    }
+
+    /**
+     * Flushes, then closes the channel
+     * @throws IOException If the channel could not be written to or closed
+     */
+    @Override
+    public void close() throws IOException {
+        this.flush();
+        this.channel.close();
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (this.buffer.remaining() < bytes) {
+            this.flush();
+        }
+    }
+
+    private void putVarint(int value) throws IOException {
+        this.ensure(5);
+        while ((value & ~0x7F) != 0) {
+            this.buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        this.buffer.put((byte) value);
+    }
+}
@@ -0,0 +1,24 @@
+package com.rndash.creatureSim.AI;
+
+/**
+ * When mutations are forgotten by an InnovationHistory (See InnovationHistory.compact)
+ *
+ * Forgetting a mutation never reuses its innovation number. If the same mutation happens again
+ * later it is simply given a new number, so the only cost is that 2 brains may disagree about
+ * what is the same gene for a mutation no living brain had in common
+ */
+public enum HistoryCompaction {
+    /**
+     * Remember every mutation for the whole run. The history grows for as long as the run goes on
+     */
+    NONE,
+    /**
+     * Forget mutations that are no longer in any living brain. The history stays about as big as the living gene pool
+     */
+    UNUSED,
+    /**
+     * Forget every mutation at the end of each generation, so only mutations within the same generation
+     * share numbers, as in the original NEAT paper. The smallest history, at the cost of more unique genes
+     */
+    GENERATION
+}
@@ -0,0 +1,153 @@
+package com.rndash.creatureSim.AI;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registry of every mutation seen so far, shared by all brains of a population
+ *
+ * Mutations are looked up by (parent ID, child ID, genome fingerprint) in a hash map,
+ * so finding out if a mutation has been seen before is O(1) no matter how long the run has been.
+ * The registry also hands out innovation numbers, so they are unique across the whole population.
+ *
+ * The registry is thread safe, so several populations can share one (See IslandModel), and a
+ * mutation registered by any of them gets the same innovation number in all of them. Numbers
+ * are still handed out in the order mutations are registered, so a population that wants the same
+ * numbers for the same seed mutates its brains on worker threads with a StagedInnovations from
+ * stage() instead, and commits them back in a fixed order afterwards.
+ */
+public class InnovationHistory implements InnovationSource {
+    private final ConcurrentHashMap<NeuronConnectionHistory, NeuronConnectionHistory> mutations = new ConcurrentHashMap<>();
+    private final AtomicInteger nextInnovation = new AtomicInteger(); // Innovation number for the next new mutation
+
+    /**
+     * Returns the innovation number for a mutation
+     *
+     * If the mutation has never been seen before, its given a new unique number
+     * If the mutation matches a previous mutation, then it will have the same number as the previous
+     * matching mutation
+     * @param parent Parent neuron ID (Start of connection)
+     * @param child Child neuron ID (End of connection)
+     * @param genome Connections of the brain the mutation is happening in
+     * @return Innovation number for the mutation
+     */
+    @Override
+    public int innovationFor(int parent, int child, List<NeuronConnection> genome) {
+        return this.register(parent, child, genome.size(), fingerprint(genome));
+    }
+
+    /**
+     * Returns the innovation number for a mutation, giving it a new number if it has never been seen before
+     * @param parent Parent neuron ID
+     * @param child Child neuron ID
+     * @param genomeSize Number of connections in the genome the mutation is happening in
+     * @param fingerprint Fingerprint of that genome
+     * @return Innovation number for the mutation
+     */
+    int register(int parent, int child, int genomeSize, long fingerprint) {
+        NeuronConnectionHistory key = new NeuronConnectionHistory(parent, child, genomeSize, fingerprint, -1);
+        NeuronConnectionHistory existing = this.mutations.get(key);
+        if (existing != null) {
+            return existing.innovationNumber;
+        }
+        // Only takes a number if the mutation is still new once the map entry is locked
+        return this.mutations.computeIfAbsent(key, k -> new NeuronConnectionHistory(parent, child, genomeSize, fingerprint,
+                this.nextInnovation.getAndIncrement())).innovationNumber;
+    }
+
+    /**
+     * Looks up a mutation without registering it
+     * @param parent Parent neuron ID
+     * @param child Child neuron ID
+     * @param genomeSize Number of connections in the genome the mutation is happening in
+     * @param fingerprint Fingerprint of that genome
+     * @return Innovation number of the mutation, or -1 if it has never been seen
+     */
+    int find(int parent, int child, int genomeSize, long fingerprint) {
+        NeuronConnectionHistory existing = this.mutations.get(new NeuronConnectionHistory(parent, child, genomeSize, fingerprint, -1));
+        return existing == null ? -1 : existing.innovationNumber;
+    }
+
+    /**
+     * Starts staging mutations for a brain that will be mutated on another thread
+     * @return New, empty staged set
+     */
+    public StagedInnovations stage() {
+        return new StagedInnovations(this);
+    }
+
+    /**
+     * Returns the number of mutations the registry remembers right now
+     * This drops when the registry is compacted
+     * @return Number of remembered mutations
+     */
+    public int size() {
+        return this.mutations.size();
+    }
+
+    /**
+     * Returns the number of unique mutations seen so far, which is also the next innovation number
+     * @return Number of mutations
+     */
+    public int innovationCount() {
+        return this.nextInnovation.get();
+    }
+
+    /**
+     * Forgets mutations the policy no longer needs, so the registry doesn't grow for the whole run
+     * Innovation numbers are never handed out twice, whatever is forgotten.
+     * Must not be called whilst mutations are being registered or staged
+     * @param policy Which mutations to forget
+     * @param living Every brain that may still be bred from or compared against
+     * @return Number of mutations forgotten
+     */
+    public int compact(HistoryCompaction policy, Collection<Brain> living) {
+        int before = this.mutations.size();
+        switch (policy) {
+            case NONE:
+                return 0;
+            case GENERATION:
+                this.mutations.clear();
+                return before;
+            case UNUSED:
+            default:
+                BitSet live = new BitSet(this.nextInnovation.get());
+                for (Brain b : living) {
+                    for (NeuronConnection c : b.connections) {
+                        live.set(c.innovationNumber);
+                    }
+                }
+                this.mutations.values().removeIf(h -> !live.get(h.innovationNumber));
+                return before - this.mutations.size();
+        }
+    }
+
+    /**
+     * Generates a fingerprint for the innovation numbers of a genome
+     * The order of connections doesn't matter, only which innovation numbers are in the genome
+     * @param genome Connections of the genome
+     * @return 64 bit fingerprint
+     */
+    public static long fingerprint(List<NeuronConnection> genome) {
+        long sum = 0;
+        for (int i = 0; i < genome.size(); i++) {
+            sum += mix(genome.get(i).innovationNumber);
+        }
+        return sum;
+    }
+
+    /**
+     * Scrambles an innovation number into 64 well distributed bits (SplitMix64 finaliser)
+     * @param innovation Innovation number
+     * @return Scrambled value
+     */
+    static long mix(long innovation) {
+        long z = innovation + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,18 @@
+package com.rndash.creatureSim.AI;
+
+import java.util.List;
+
+/**
+ * Hands out innovation numbers for new mutations
+ * Either the population's InnovationHistory, or a StagedInnovations for a brain being mutated on a worker thread
+ */
+public interface InnovationSource {
+    /**
+     * Returns the innovation number for a mutation
+     * @param parent Parent neuron ID (Start of connection)
+     * @param child Child neuron ID (End of connection)
+     * @param genome Connections of the brain the mutation is happening in
+     * @return Innovation number for the mutation
+     */
+    int innovationFor(int parent, int child, List<NeuronConnection> genome);
+}
@@ -0,0 +1,130 @@
+package com.rndash.creatureSim.AI;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Compiled form of a brain's network
+ *
+ * Neurons are numbered by their position in topological (layer) order, and every
+ * enabled connection is flattened into the source / target / weight arrays, grouped
+ * by source neuron in that same order. Evaluating the plan is then a single walk
+ * over primitive arrays, with no Neuron or NeuronConnection objects involved.
+ *
+ * A plan is immutable once built. The activation values are held in a scratch array
+ * that the caller owns, so one plan can be evaluated by several callers at once.
+ */
+public final class NetworkPlan {
+    public final int neurons; // Number of neurons in the plan
+    final int firstActivated; // Index of the first neuron that is not in layer 0
+    final int[] inputIndex; // Plan index of each network input
+    final int[] outputIndex; // Plan index of each network output
+    final int biasIndex; // Plan index of the bias neuron
+    final int[] edgeSource; // Source neuron of each connection
+    final int[] edgeTarget; // Target neuron of each connection
+    final double[] edgeWeight; // Weight of each connection
+    final Activation activation; // Activation function of non input neurons
+
+    /**
+     * Compiles a plan from a brain's neurons
+     * @param network All neurons of the brain, sorted by layer
+     * @param nodes Neurons of the brain in creation order (Inputs, outputs then bias first)
+     * @param connections All connections of the brain
+     * @param inputs Number of network inputs
+     * @param outputs Number of network outputs
+     * @param biasNode ID of the bias neuron
+     * @param activation Activation function of non input neurons
+     */
+    NetworkPlan(ArrayList<Neuron> network, ArrayList<Neuron> nodes, ArrayList<NeuronConnection> connections, int inputs, int outputs, int biasNode, Activation activation) {
+        this.neurons = network.size();
+        this.activation = activation;
+        // Plan index of each neuron, looked up by neuron ID
+        int maxId = 0;
+        for (Neuron n : network) {
+            maxId = Math.max(maxId, n.id);
+        }
+        int[] index = new int[maxId + 1];
+        int firstActivated = this.neurons;
+        for (int i = 0; i < this.neurons; i++) {
+            Neuron n = network.get(i);
+            index[n.id] = i;
+            if (n.layer != 0 && firstActivated == this.neurons) {
+                firstActivated = i;
+            }
+        }
+        this.firstActivated = firstActivated;
+
+        this.inputIndex = new int[inputs];
+        for (int i = 0; i < inputs; i++) {
+            this.inputIndex[i] = index[nodes.get(i).id];
+        }
+        this.outputIndex = new int[outputs];
+        for (int i = 0; i < outputs; i++) {
+            this.outputIndex[i] = index[nodes.get(inputs + i).id];
+        }
+        this.biasIndex = biasNode <= maxId ? index[biasNode] : -1;
+
+        // Count the enabled edges, then lay them out grouped by source in plan order
+        int[] perSource = new int[this.neurons];
+        int edges = 0;
+        for (NeuronConnection c : connections) {
+            if (c.enabled) {
+                perSource[index[c.parent.id]]++;
+                edges++;
+            }
+        }
+        int[] next = new int[this.neurons];
+        for (int i = 1; i < this.neurons; i++) {
+            next[i] = next[i - 1] + perSource[i - 1];
+        }
+        this.edgeSource = new int[edges];
+        this.edgeTarget = new int[edges];
+        this.edgeWeight = new double[edges];
+        for (NeuronConnection c : connections) {
+            if (c.enabled) {
+                int src = index[c.parent.id];
+                int e = next[src]++;
+                this.edgeSource[e] = src;
+                this.edgeTarget[e] = index[c.child.id];
+                this.edgeWeight[e] = c.weight;
+            }
+        }
+    }
+
+    /**
+     * Feed forward through the plan
+     * @param in Input values, read from in[inOffset] onwards
+     * @param inOffset Offset of the first input
+     * @param out Output values, written from out[outOffset] onwards
+     * @param outOffset Offset of the first output
+     * @param values Scratch array of at least [neurons] length. Holds the activation of each neuron afterwards
+     */
+    public void evaluate(double[] in, int inOffset, double[] out, int outOffset, double[] values) {
+        Arrays.fill(values, 0, this.neurons, 0);
+        for (int i = 0; i < this.inputIndex.length; i++) {
+            values[this.inputIndex[i]] = in[inOffset + i];
+        }
+        if (this.biasIndex != -1) {
+            values[this.biasIndex] = 1;
+        }
+        final Activation activation = this.activation;
+        final int edges = this.edgeSource.length;
+        int e = 0;
+        for (int n = 0; n < this.neurons; n++) {
+            double v = values[n];
+            // Neuron has others connected to it, so activate the input sum first
+            if (n >= this.firstActivated) {
+                v = activation.apply(v);
+                values[n] = v;
+            }
+            // Send the output value to all its connected neurons
+            while (e < edges && this.edgeSource[e] == n) {
+                values[this.edgeTarget[e]] += this.edgeWeight[e] * v;
+                e++;
+            }
+        }
+        for (int i = 0; i < this.outputIndex.length; i++) {
+            out[outOffset + i] = values[this.outputIndex[i]];
+        }
+    }
+}
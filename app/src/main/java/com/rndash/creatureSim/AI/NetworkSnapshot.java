@@ -0,0 +1,127 @@
+package com.rndash.creatureSim.AI;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Copy of a brain's network and the value of each neuron, for drawing on another thread
+ *
+ * Captured on the thread running the brain, after which it holds no reference to the
+ * brain, its neurons or its connections. Arrays are reused by the next capture.
+ */
+public final class NetworkSnapshot implements NetworkRenderable {
+    public int neurons; // Number of neurons captured
+    public int[] neuronX = new int[0]; // X offset of each neuron
+    public int[] neuronY = new int[0]; // Y offset of each neuron
+    public double[] neuronValue = new double[0]; // Value of each neuron after the last feed forward
+
+    public int connections; // Number of connections captured
+    public int[] connectionParent = new int[0]; // Index of the parent neuron of each connection
+    public int[] connectionChild = new int[0]; // Index of the child neuron of each connection
+    public boolean[] connectionEnabled = new boolean[0]; // If each connection is enabled
+
+    private int[] neuronIndex = new int[0]; // Captured index of each neuron, by neuron ID
+
+    /**
+     * Forgets the captured network, so nothing is drawn
+     */
+    public void clear() {
+        this.neurons = 0;
+        this.connections = 0;
+    }
+
+    /**
+     * Captures a brain, with the values from its own last feed forward
+     * @param brain Brain to capture
+     */
+    public void capture(Brain brain) {
+        this.captureTopology(brain);
+        double[] values = brain.getActivations();
+        if (values != null && brain.getPlan() != null) {
+            System.arraycopy(values, 0, this.neuronValue, 0, brain.getPlan().neurons);
+        }
+    }
+
+    /**
+     * Captures a brain, with the values from its last evaluation in a batch
+     * @param brain Brain to capture
+     * @param batch Batch the brain was compiled into
+     * @param index Index of the brain in the batch
+     */
+    public void capture(Brain brain, BrainBatch batch, int index) {
+        this.captureTopology(brain);
+        if (brain.getPlan() != null) {
+            batch.copyValues(index, this.neuronValue, 0);
+        }
+    }
+
+    private void captureTopology(Brain brain) {
+        // Neurons are numbered in plan (layer) order, the same order their values are in
+        ArrayList<Neuron> network = brain.getPlan() != null ? brain.network : brain.nodes;
+        int count = network.size();
+        if (this.neuronX.length < count) {
+            int size = Math.max(count, this.neuronX.length * 2);
+            this.neuronX = new int[size];
+            this.neuronY = new int[size];
+            this.neuronValue = new double[size];
+        }
+        if (this.neuronIndex.length < brain.nextNeuron) {
+            this.neuronIndex = new int[Math.max(brain.nextNeuron, this.neuronIndex.length * 2)];
+        }
+        for (int i = 0; i < count; i++) {
+            Neuron n = network.get(i);
+            this.neuronX[i] = n.layer * 200;
+            this.neuronY[i] = n.id / (n.layer + 1) * 20;
+            this.neuronIndex[n.id] = i;
+        }
+        Arrays.fill(this.neuronValue, 0, count, 0);
+        this.neurons = count;
+
+        ArrayList<NeuronConnection> list = brain.connections;
+        int edges = list.size();
+        if (this.connectionParent.length < edges) {
+            int size = Math.max(edges, this.connectionParent.length * 2);
+            this.connectionParent = new int[size];
+            this.connectionChild = new int[size];
+            this.connectionEnabled = new boolean[size];
+        }
+        for (int i = 0; i < edges; i++) {
+            NeuronConnection c = list.get(i);
+            this.connectionParent[i] = this.neuronIndex[c.parent.id];
+            this.connectionChild[i] = this.neuronIndex[c.child.id];
+            this.connectionEnabled[i] = c.enabled;
+        }
+        this.connections = edges;
+    }
+
+    @Override
+    public void render(Canvas c, Paint p, int x, int y, int h, int w) {
+        p.setColor(Color.RED);
+        for (int i = 0; i < this.neurons; i++) {
+            c.drawCircle(x + this.neuronX[i], y + this.neuronY[i], 10, p);
+        }
+        for (int i = 0; i < this.connections; i++) {
+            int parent = this.connectionParent[i];
+            int child = this.connectionChild[i];
+            if (this.connectionEnabled[i]) {
+                p.setStrokeWidth(3);
+                // Trigger threshold for creature
+                double value = this.neuronValue[parent];
+                if (value < 0.25) {
+                    p.setColor(Color.GREEN);
+                } else if (value > 0.75) {
+                    p.setColor(Color.YELLOW);
+                } else {
+                    p.setColor(Color.GRAY);
+                }
+            } else {
+                p.setColor(Color.BLACK);
+            }
+            c.drawLine(x + this.neuronX[parent], y + this.neuronY[parent], x + this.neuronX[child], y + this.neuronY[child], p);
+        }
+    }
+}
@@ -1,15 +1,11 @@
 package com.rndash.creatureSim.AI;
 
-import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Paint;
-
-import java.util.Random;
+import com.rndash.creatureSim.EvolutionConfig;
 
 /**
  * Represents a connection between 2 neurons
  */
-public class NeuronConnection implements NetworkRenderable{
+public class NeuronConnection {
     public double weight; // This connections weight
     public final Neuron parent; // Parent neuron
     public final Neuron child; // Child neuron
@@ -24,15 +20,25 @@ public class NeuronConnection implements NetworkRenderable{
         this.enabled = true;
     }
 
+    /**
+     * Randomly modify the weight to act as a 'mutation', with the default mutation rates
+     * @param random Random number stream
+     */
+    public void mutateWeight(RandomSource random) {
+        this.mutateWeight(random, EvolutionConfig.DEFAULT);
+    }
+
     /**
      * Randomly modify the weight to act as a 'mutation'
+     * @param random Random number stream
+     * @param config Mutation rates
      */
-    public void mutateWeight() {
-        double rnd = Math.random();
-        if (rnd < 0.1) { // 10% chance of a mutation
-            this.weight = (Math.random() * 2) -1; // Random from -1 to 1;
+    public void mutateWeight(RandomSource random, EvolutionConfig config) {
+        double rnd = random.nextDouble();
+        if (rnd < config.weightReplaceRate) { // Chance of a whole new weight
+            this.weight = (random.nextDouble() * 2) -1; // Random from -1 to 1;
         } else {
-            this.weight += (new Random().nextGaussian() / 50);
+            this.weight += (random.nextGaussian() * config.weightPerturbation);
             // Clamp weights so are not out of expected range
             if (this.weight > 1) {
                 this.weight = 1;
@@ -54,23 +60,4 @@ public class NeuronConnection implements NetworkRenderable{
         clone.enabled = this.enabled;
         return clone;
     }
-
-
-    @Override
-    public void render(Canvas c, Paint p, int x, int y, int h, int w) {
-        if (this.enabled) {
-            p.setStrokeWidth(3);
-            // Trigger threshold for creature
-            if (parent.outputValue < 0.25) {
-                p.setColor(Color.GREEN);
-            } else if (parent.outputValue > 0.75){
-                p.setColor(Color.YELLOW);
-            } else {
-                p.setColor(Color.GRAY);
-            }
-        } else {
-            p.setColor(Color.BLACK);
-        }
-        c.drawLine(x, y, h, w, p);
-    }
 }
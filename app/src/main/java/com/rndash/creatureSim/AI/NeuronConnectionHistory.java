@@ -1,43 +1,43 @@
 package com.rndash.creatureSim.AI;
 
-import java.util.ArrayList;
-
 /**
  * Represents a history of mutations for a given NeuronConnection
+ *
+ * Rather than keeping a copy of the genome the mutation happened in, only its
+ * size and a fingerprint of its innovation numbers are kept (See InnovationHistory.fingerprint)
  */
 public class NeuronConnectionHistory {
-    final Neuron parent; // Parent neuron
-    final Neuron child; // Child neuron
+    final int parent; // Parent neuron ID
+    final int child; // Child neuron ID
+    final int genomeSize; // Number of connections in the genome the mutation happened in
+    final long fingerprint; // Fingerprint of the innovation numbers in that genome
     final int innovationNumber; // Mutation ID
-    final ArrayList<Integer> innovationNumbers = new ArrayList<>();
-    public NeuronConnectionHistory(Neuron from, Neuron to, int innovation, ArrayList<Integer> innovationNos) {
+    public NeuronConnectionHistory(int from, int to, int genomeSize, long fingerprint, int innovation) {
         this.parent = from;
         this.child = to;
+        this.genomeSize = genomeSize;
+        this.fingerprint = fingerprint;
         this.innovationNumber = innovation;
-        this.innovationNumbers.clear();
-        this.innovationNumbers.addAll(innovationNos);
     }
 
     /**
-     * Check to see if a mutation in the given Brain matches this mutation
-     * @param b Brain that we are checking against
-     * @param from Parent neuron for mutation check
-     * @param to Child neuron for mutation check
-     * @return True if this mutation is identical to an existing on
+     * Mutations are the same if they connect the same neurons within identical genomes.
+     * The innovation number is not part of the comparison
      */
-    public boolean matches(Brain b, Neuron from, Neuron to) {
-        // Mutations can only be the same if we have the same number of ID's
-        if (b.connections.size() == this.innovationNumbers.size()) {
-            // Check if the the neurons in question match this objects pair
-            if (from.id == this.parent.id && to.id == this.child.id) {
-                for (int i = 0; i < b.connections.size(); i++) {
-                    if (!this.innovationNumbers.contains(b.connections.get(i).innovationNumber)) {
-                        return false;
-                    }
-                }
-                return true;
-            }
-        }
-        return false;
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof NeuronConnectionHistory)) return false;
+        NeuronConnectionHistory h = (NeuronConnectionHistory) o;
+        return this.parent == h.parent && this.child == h.child && this.genomeSize == h.genomeSize && this.fingerprint == h.fingerprint;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = this.parent;
+        result = 31 * result + this.child;
+        result = 31 * result + this.genomeSize;
+        result = 31 * result + Long.hashCode(this.fingerprint);
+        return result;
     }
 }
@@ -0,0 +1,94 @@
+package com.rndash.creatureSim.AI;
+
+import java.util.SplittableRandom;
+
+/**
+ * Seedable stream of random numbers for everything random in the simulation
+ *
+ * A RandomSource is not thread safe, and is not meant to be. Instead every thread or task gets
+ * its own stream, either with split() or with stream(key), so streams never contend with each other.
+ * stream(key) is fully determined by the seed and the key, so parallel work that picks its stream
+ * by task number produces the same results no matter which thread runs it.
+ * A whole run can be replayed by creating the population with the same seed.
+ */
+public final class RandomSource {
+    private final long seed; // Seed this stream was created from
+    private final SplittableRandom random; // Underlying generator
+    private double nextGaussian; // Second value generated by the last gaussian pair
+    private boolean hasNextGaussian = false; // Is [nextGaussian] waiting to be used
+
+    /**
+     * Creates a new stream
+     * @param seed Seed for the stream
+     */
+    public RandomSource(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Returns the seed this stream was created from
+     * @return Seed
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Returns a uniformly distributed value
+     * @return Value from 0 (inclusive) to 1 (exclusive)
+     */
+    public double nextDouble() {
+        return this.random.nextDouble();
+    }
+
+    /**
+     * Returns a uniformly distributed integer
+     * @param bound Upper bound (exclusive). Must be positive
+     * @return Value from 0 (inclusive) to bound (exclusive)
+     */
+    public int nextInt(int bound) {
+        return this.random.nextInt(bound);
+    }
+
+    /**
+     * Returns a normally distributed value (Marsaglia polar method)
+     * @return Value with a mean of 0 and a standard deviation of 1
+     */
+    public double nextGaussian() {
+        if (this.hasNextGaussian) {
+            this.hasNextGaussian = false;
+            return this.nextGaussian;
+        }
+        double v1;
+        double v2;
+        double s;
+        do {
+            v1 = 2 * this.random.nextDouble() - 1;
+            v2 = 2 * this.random.nextDouble() - 1;
+            s = v1 * v1 + v2 * v2;
+        } while (s >= 1 || s == 0);
+        double multiplier = Math.sqrt(-2 * Math.log(s) / s);
+        this.nextGaussian = v2 * multiplier;
+        this.hasNextGaussian = true;
+        return v1 * multiplier;
+    }
+
+    /**
+     * Splits off a new, independent stream. Advances this stream
+     * @return New stream, for handing to another thread or task
+     */
+    public RandomSource split() {
+        return new RandomSource(this.random.nextLong());
+    }
+
+    /**
+     * Returns the stream for a given key. The same seed and key always give the same stream,
+     * and this stream is not advanced
+     * @param key Key of the stream, such as a task or generation number
+     * @return New stream for the key
+     */
+    public RandomSource stream(long key) {
+        return new RandomSource(InnovationHistory.mix(this.seed ^ InnovationHistory.mix(key)));
+    }
+}
@@ -0,0 +1,101 @@
+package com.rndash.creatureSim.AI;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mutations of one brain that is being mutated away from the population's InnovationHistory,
+ * typically on a worker thread
+ *
+ * Mutations the history already knows get their real innovation number straight away. New ones
+ * are staged with a provisional (negative) number, and only registered when commit() is called.
+ * Committing staged sets one after another in a fixed order hands out the same numbers whichever
+ * threads did the work, and the same new mutation in 2 brains still ends up with the same innovation number.
+ */
+public final class StagedInnovations implements InnovationSource {
+    private final InnovationHistory history; // History to look up known mutations in, and commit to
+    private final ArrayList<Mutation> staged = new ArrayList<>(); // New mutations, in the order they happened
+
+    /**
+     * A staged mutation. Its provisional number is -(index in staged + 1)
+     */
+    private static final class Mutation {
+        final int parent; // Parent neuron ID
+        final int child; // Child neuron ID
+        final int genomeSize; // Number of connections in the genome at the time
+        final long fingerprint; // Fingerprint of the genome at the time, including provisional numbers
+        final int[] provisional; // Provisional numbers that were in the genome at the time
+
+        Mutation(int parent, int child, int genomeSize, long fingerprint, int[] provisional) {
+            this.parent = parent;
+            this.child = child;
+            this.genomeSize = genomeSize;
+            this.fingerprint = fingerprint;
+            this.provisional = provisional;
+        }
+    }
+
+    StagedInnovations(InnovationHistory history) {
+        this.history = history;
+    }
+
+    @Override
+    public int innovationFor(int parent, int child, List<NeuronConnection> genome) {
+        long fingerprint = 0;
+        int provisionalCount = 0;
+        for (int i = 0; i < genome.size(); i++) {
+            int innovation = genome.get(i).innovationNumber;
+            fingerprint += InnovationHistory.mix(innovation);
+            if (innovation < 0) {
+                provisionalCount++;
+            }
+        }
+        // A genome holding staged mutations can't match anything in the history yet
+        if (provisionalCount == 0) {
+            int known = this.history.find(parent, child, genome.size(), fingerprint);
+            if (known != -1) {
+                return known;
+            }
+        }
+        int[] provisional = new int[provisionalCount];
+        for (int i = 0, p = 0; p < provisionalCount; i++) {
+            int innovation = genome.get(i).innovationNumber;
+            if (innovation < 0) {
+                provisional[p++] = innovation;
+            }
+        }
+        this.staged.add(new Mutation(parent, child, genome.size(), fingerprint, provisional));
+        return -this.staged.size();
+    }
+
+    /**
+     * Returns the number of new mutations staged
+     * @return Number of staged mutations
+     */
+    public int size() {
+        return this.staged.size();
+    }
+
+    /**
+     * Registers the staged mutations in the history, then gives the brain's connections their real innovation numbers
+     * Must be called from one thread at a time
+     * @param brain Brain the mutations were staged for
+     */
+    public void commit(Brain brain) {
+        if (this.staged.isEmpty()) {
+            return;
+        }
+        int[] real = new int[this.staged.size()];
+        for (int k = 0; k < real.length; k++) {
+            Mutation m = this.staged.get(k);
+            // Swap the provisional numbers in the fingerprint for their real ones (The fingerprint is a sum, so this is exact)
+            long fingerprint = m.fingerprint;
+            for (int p : m.provisional) {
+                fingerprint += InnovationHistory.mix(real[-p - 1]) - InnovationHistory.mix(p);
+            }
+            real[k] = this.history.register(m.parent, m.child, m.genomeSize, fingerprint);
+        }
+        brain.renumberInnovations(real);
+        this.staged.clear();
+    }
+}
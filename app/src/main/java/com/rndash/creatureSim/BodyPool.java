@@ -0,0 +1,95 @@
+package com.rndash.creatureSim;
+
+import com.rndash.creatureSim.CreatureParts.PhysicsWorld;
+
+import java.util.Arrays;
+
+/**
+ * Bodies of creatures that are finished with, kept for the next generation
+ *
+ * Every generation replaces every creature, but they all share one blueprint, so all of a population's
+ * bodies live side by side in one PhysicsWorld. Rather than adding a new body for each child, the
+ * bodies of the last generation are put back in their rest pose and handed out again, so the world
+ * only ever grows to the largest number of creatures alive at once.
+ * Not thread safe. Each population has its own pool
+ */
+public class BodyPool {
+    private final CreatureBuilder model; // Blueprint of every body in the pool
+    private final PhysicsWorld world; // World holding every body handed out by the pool
+    private int[] free = new int[16]; // Indexes of the free bodies in [world]
+    private int freeCount = 0; // Number of entries used in [free]
+    private int strays = 0; // Bodies handed out in worlds of their own, rather than the pool's
+
+    /**
+     * Creates an empty pool
+     * @param model Blueprint of every body
+     */
+    public BodyPool(CreatureBuilder model) {
+        this.model = model;
+        this.world = model.newWorld();
+    }
+
+    /**
+     * Returns the world holding the pool's bodies
+     * @return Physics world
+     */
+    public PhysicsWorld getWorld() {
+        return this.world;
+    }
+
+    /**
+     * Gives a creature a body in its rest pose, reusing a free one if there is one
+     * @param c Creature without a body
+     */
+    public void acquire(Creature c) {
+        int body = this.freeCount > 0 ? this.free[--this.freeCount] : this.world.addBody();
+        if (this.model.resetBody(this.world, body)) {
+            c.setBody(this.world, body);
+            return;
+        }
+        // The blueprint was edited since the pool was made, so its bodies no longer fit
+        this.free[this.freeCount++] = body;
+        PhysicsWorld own = this.model.newWorld();
+        int b = own.addBody();
+        this.model.resetBody(own, b);
+        c.setBody(own, b);
+        this.strays++;
+    }
+
+    /**
+     * Takes a creature's body back into the pool. The creature can't be simulated after this
+     * @param c Creature to take the body of. Nothing happens if it has none
+     */
+    public void release(Creature c) {
+        if (!c.hasBody()) {
+            return;
+        }
+        // Bodies in worlds of their own are just dropped
+        if (c.world == this.world) {
+            if (this.freeCount == this.free.length) {
+                this.free = Arrays.copyOf(this.free, this.free.length * 2);
+            }
+            this.free[this.freeCount++] = c.body;
+        } else {
+            this.strays--;
+        }
+        c.clearBody();
+    }
+
+    /**
+     * Returns the number of bodies handed out that are not in the pool's world
+     * When there are none, stepping the pool's world steps every creature the pool gave a body to
+     * @return Number of bodies outside the pool's world
+     */
+    public int strays() {
+        return this.strays;
+    }
+
+    /**
+     * Returns the number of free bodies
+     * @return Number of bodies in the pool
+     */
+    public int size() {
+        return this.freeCount;
+    }
+}
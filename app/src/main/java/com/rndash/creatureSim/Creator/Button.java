@@ -1,7 +1,6 @@
 package com.rndash.creatureSim.Creator;
 
 import android.graphics.Canvas;
-import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Rect;
 import android.util.Log;
@@ -28,16 +27,16 @@ public class Button {
      * @param x X location from top left (0,0)
      * @param y location from top left (0,0)
      * @param text_size Text size, in DP
-     * @param textColour Text colour
-     * @param backgroundColour Background of button colour
+     * @param textColour Text colour (ARGB)
+     * @param backgroundColour Background of button colour (ARGB)
      */
-    public Button(String text, int x, int y, int text_size, Color textColour, Color backgroundColour) {
+    public Button(String text, int x, int y, int text_size, int textColour, int backgroundColour) {
         this.text = text;
         this.x = x;
         this.y = y;
         this.text_size = text_size;
-        this.textColour = textColour.toArgb();
-        this.backgroundColour = backgroundColour.toArgb();
+        this.textColour = textColour;
+        this.backgroundColour = backgroundColour;
     }
 
     /**
@@ -4,14 +4,18 @@ import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import com.rndash.creatureSim.AI.Brain;
+import com.rndash.creatureSim.AI.RandomSource;
 import com.rndash.creatureSim.CreatureParts.Joint;
 import com.rndash.creatureSim.CreatureParts.Node;
+import com.rndash.creatureSim.CreatureParts.PhysicsWorld;
 
 import java.util.ArrayList;
 
 public class Creature {
     public ArrayList<Node> nodes; // List of nodes on the creature
     public ArrayList<Joint> joints; // List of joints on the creature
+    PhysicsWorld world; // World holding the state of the body
+    int body; // Index of the body in [world]
     public double fitness = 0; // Fitness rating
     public int lifespan = 0; // Lifespan
     public double bestScore = 0; // Best score the creature has achieved
@@ -19,23 +23,129 @@ public class Creature {
     public double score = -1; // Current score holder
     public int generation = 0; // Generation of the creature
     public Brain brain; // Brain object for the creature
-    Color color; // Render colour
+    int color; // Render colour (ARGB)
     final CreatureBuilder cb; // Blueprint for the creature
     public double avgDistance = 0;
+    public static final double TARGET_DISTANCE = 100; // Distance (meters) that scores 1. Scores stop improving past it
     private double staleness = 0;
-    public Creature(CreatureBuilder c) {
+    private double[] vision; // AI inputs, reused every AI tick. Only made if the creature thinks on its own, rather than in a batch
+    private double[] decision; // AI outputs, reused every AI tick
+    private boolean tinted = false; // Are the nodes drawn in [color], rather than the blueprint's colours
+    final EvolutionConfig config; // Parameters of the population this creature belongs to
+    /**
+     * Creates a new creature with a random colour, and the default parameters
+     * @param c Blueprint for the creature
+     * @param random Random number stream
+     */
+    public Creature(CreatureBuilder c, RandomSource random) {
+        this(c, random, EvolutionConfig.DEFAULT);
+    }
+
+    /**
+     * Creates a new creature with a random colour
+     * @param c Blueprint for the creature
+     * @param random Random number stream
+     * @param config Parameters of the population
+     */
+    public Creature(CreatureBuilder c, RandomSource random, EvolutionConfig config) {
+        this(c, random, config, null);
+        this.setOwnBody();
+    }
+
+    /**
+     * Creates a new creature with a random colour, but no body yet
+     * Give it one from a BodyPool before simulating it
+     * @param c Blueprint for the creature
+     * @param random Random number stream
+     * @param config Parameters of the population
+     * @param brain Brain for the creature, or null for a new, empty brain
+     */
+    public Creature(CreatureBuilder c, RandomSource random, EvolutionConfig config, Brain brain) {
+        this(c, Color.rgb((float) random.nextDouble(), (float) random.nextDouble(), (float) random.nextDouble()), config, brain);
+    }
+
+    /**
+     * Creates a new creature without a body
+     * @param c Blueprint for the creature
+     * @param color Render colour (ARGB)
+     * @param config Parameters of the population
+     * @param brain Brain for the creature, or null for a new, empty brain
+     */
+    private Creature(CreatureBuilder c, int color, EvolutionConfig config, Brain brain) {
         this.cb = c; // Reference to blueprint
-        this.nodes = c.getNodes();
-        this.joints = c.getJoints(this.nodes);
-        this.color = Color.valueOf((float) Math.random(), (float) Math.random(), (float) Math.random());
-        /*
-        Set the brain input and output count
-        Inputs:
-            For each node, its X and Y forces and velocities
-        Outputs:
-            For each joint, single boolean indicating if it needs to contract or not
-         */
-        brain = new Brain(this.nodes.size()*4, this.joints.size());
+        this.config = config;
+        this.color = color;
+        if (brain == null) {
+            /*
+            Set the brain input and output count
+            Inputs:
+                For each node, its X and Y forces and velocities
+            Outputs:
+                For each joint, single boolean indicating if it needs to contract or not
+             */
+            brain = new Brain(c.getNodeCount()*4, c.getJointCount());
+        }
+        this.brain = brain;
+        this.brain.activation = config.activation;
+    }
+
+    /**
+     * Gives the creature a body of a physics world, in its rest pose
+     * @param world World holding the body
+     * @param body Index of the body in [world]
+     */
+    void setBody(PhysicsWorld world, int body) {
+        this.world = world;
+        this.body = body;
+        this.nodes = world.nodes(body);
+        this.joints = world.joints(body);
+        if (this.tinted) {
+            this.nodes.forEach((Node n) -> {n.setRenderColor(this.color);});
+        }
+    }
+
+    /**
+     * Takes the body away from the creature, so it can be reused by another
+     * The creature can't be simulated after this
+     */
+    void clearBody() {
+        this.world = null;
+        this.nodes = null;
+        this.joints = null;
+    }
+
+    /**
+     * Gives the creature a new body, in a world of its own
+     */
+    private void setOwnBody() {
+        PhysicsWorld own = this.cb.newWorld();
+        int b = own.addBody();
+        this.cb.resetBody(own, b);
+        this.setBody(own, b);
+    }
+
+    /**
+     * Checks if the creature has a body to simulate
+     * @return True if it has a body
+     */
+    public boolean hasBody() {
+        return this.nodes != null;
+    }
+
+    /**
+     * Returns the world holding the creature's body
+     * @return Physics world, or null if it has no body
+     */
+    public PhysicsWorld getWorld() {
+        return this.world;
+    }
+
+    /**
+     * Returns the index of the creature's body in its world
+     * @return Index of the body
+     */
+    public int getBody() {
+        return this.body;
     }
 
     /**
@@ -57,21 +167,16 @@ public class Creature {
      * @param stepMillis Interval in MS for the simulation
      */
     public void simulationStep(long stepMillis) {
-        for (Joint j : joints) {
-            j.simStepUpdate(stepMillis);
-        }
-        for (Node n : nodes) {
-            n.simStepUpdate(stepMillis);
-        }
-
+        this.world.step(this.body, stepMillis);
     }
 
     /**
-     * Resets the positions of all the nodes
+     * Resets the positions of all the nodes, reusing the body
      */
     public void reset() {
-        this.nodes = cb.getNodes();
-        this.joints = cb.getJoints(this.nodes);
+        if (!this.cb.resetBody(this.world, this.body)) {
+            this.setOwnBody();
+        }
     }
 
     public boolean isDead() {
@@ -80,20 +185,21 @@ public class Creature {
 
     /**
      * Generates a new baby creature from this creature and a less-dominant parent
-     * @param p2
-     * @return
+     * @param p2 The other parent
+     * @param random Random number stream
+     * @return A new baby creature
      */
-    public Creature crossover(Creature p2) {
-        Creature child = new Creature(this.cb); // Generate a new creature with this creature's blueprint
-        child.brain = this.brain.crossover(p2.brain); // Clone the brain with genetics
-        child.brain.generateNetwork(); // Setup the child's network
-        // Mutate the child's colour so its a bit different
-        child.color = Color.valueOf(
-                (float) (this.color.red() + Math.random()/10F),
-                (float) (this.color.green() + Math.random()/10F),
-                (float) (this.color.blue() + Math.random()/10F)
+    public Creature crossover(Creature p2, RandomSource random) {
+        // Mutate the child's colour so its a bit different. Channels are capped so they can't overflow into each other
+        int childColor = Color.rgb(
+                (float) Math.min(1, Color.red(this.color)/255F + random.nextDouble()/10F),
+                (float) Math.min(1, Color.green(this.color)/255F + random.nextDouble()/10F),
+                (float) Math.min(1, Color.blue(this.color)/255F + random.nextDouble()/10F)
         );
-        child.nodes.forEach((Node n) -> {n.setRenderColor(child.color);});
+        // Generate a new creature with this creature's blueprint, and a brain crossed over with genetics
+        Creature child = new Creature(this.cb, childColor, this.config, this.brain.crossover(p2.brain, random));
+        child.brain.generateNetwork(); // Setup the child's network
+        child.tinted = true; // The body is drawn in the child's colour once it has one
         return child;
     }
 
@@ -103,7 +209,7 @@ public class Creature {
     public void calculateFitness() {
         this.fitness = (this.score * this.score);
         this.fitness *= (0.9 + (1-0.9) * (this.score/this.lifespan) / (0.9));
-        //Log.d("FITNESS", String.format("Creature fitness is %.4f, Score was %.4f, Distance is %.4f", this.fitness, this.score, this.nodes.stream().mapToDouble(j -> j.getSimPos().getX()).sum() / this.nodes.size()));
+        //Log.d("FITNESS", String.format("Creature fitness is %.4f, Score was %.4f, Distance is %.4f", this.fitness, this.score, this.world.averageX(this.body)));
     }
 
     /**
@@ -121,37 +227,47 @@ public class Creature {
         if (isDead) {
             return;
         }
-        // Get the creature AI inputs (AKA its vision)
-        ArrayList<Double> vision = new ArrayList<>();
-        for (Node n : nodes) {
-            vision.add(n.getVelocities().getX());
-            vision.add(n.getVelocities().getY());
-            vision.add(n.getForces().getX());
-            vision.add(n.getForces().getY());
+        if (this.vision == null) {
+            this.vision = new double[this.nodes.size()*4];
+            this.decision = new double[this.joints.size()];
         }
-
+        // Get the creature AI inputs (AKA its vision)
+        this.writeVision(this.vision, 0);
         // Now get the result of the network and respond based on its outputs
-        ArrayList<Double> decision = this.brain.feedForward(vision);
-        for (int i = 0; i < decision.size(); i++) {
-            if (decision.get(i) < 0.5) {
-                joints.get(i).relax();
-            } else {
-                joints.get(i).contract();
-            }
-        }
+        this.brain.feedForward(this.vision, this.decision);
+        this.applyDecision(this.decision, 0);
+    }
+
+    /**
+     * Writes the creature AI inputs (AKA its vision) into an array
+     * For each node, its X and Y velocities followed by its X and Y forces
+     * @param dst Array to write to
+     * @param offset Position in [dst] to start writing at
+     */
+    public void writeVision(double[] dst, int offset) {
+        this.world.writeVision(this.body, dst, offset);
+    }
+
+    /**
+     * Responds to the outputs of the network, then scores the creature for this AI tick
+     * @param decision Network outputs, one per joint
+     * @param offset Position in [decision] of the first output
+     */
+    public void applyDecision(double[] decision, int offset) {
+        this.world.setContracting(this.body, decision, offset);
         this.lifespan++;
         // Get average X distance from start
-        double distance = this.nodes.stream().mapToDouble(n -> n.getSimPos().getX()).sum() / this.nodes.size();
+        double distance = this.world.averageX(this.body);
         if (distance < 0) { // Creature went backwards, kill
             this.isDead = true;
         }
         this.avgDistance = distance;
-        this.score = Math.min(1, distance / 100F); // 100M should be the end target
+        this.score = Math.min(1, distance / TARGET_DISTANCE);
         if (this.score > this.bestScore + 0.01) { // For a 10 seconds period we should see at least a 1m difference
             this.bestScore = this.score;
             this.staleness = 0;
         }
-        if (this.staleness == 500) {
+        if (this.staleness >= this.config.creatureStalenessLimit) {
             this.isDead = true;
         }
         if (this.isFlat()) {
@@ -165,7 +281,7 @@ public class Creature {
      * @return True if its a pancake, False if it isn't
      */
     private boolean isFlat() {
-        return this.nodes.stream().mapToDouble(n -> (n.getSimPos().getY())).average().getAsDouble() < 2.1;
+        return this.world.averageY(this.body) < 2.1;
     }
 
     /**
@@ -173,12 +289,10 @@ public class Creature {
      * @return this creature's clone
      */
     public Creature clone() {
-        Creature clone = new Creature(this.cb);
-        clone.brain = this.brain.clone();
+        Creature clone = new Creature(this.cb, this.color, this.config, this.brain.clone());
         clone.fitness = this.fitness;
         clone.brain.generateNetwork();
         clone.generation = this.generation;
-        clone.color = this.color;
         return clone;
     }
 
@@ -9,6 +9,7 @@ import com.rndash.creatureSim.Creator.Button;
 import com.rndash.creatureSim.Creator.ButtonAction;
 import com.rndash.creatureSim.CreatureParts.Joint;
 import com.rndash.creatureSim.CreatureParts.Node;
+import com.rndash.creatureSim.CreatureParts.PhysicsWorld;
 
 import java.util.ArrayList;
 
@@ -17,17 +18,17 @@ import java.util.ArrayList;
  * as well as the blueprint for the creature
  */
 public class CreatureBuilder {
-    private final Button addJ = new Button("Add Joint", 0, 400, 40, Color.valueOf(Color.WHITE), Color.valueOf(Color.BLACK));
-    private final Button addN = new Button("Add Node", 0, 600, 40, Color.valueOf(Color.WHITE), Color.valueOf(Color.BLACK));
-    private final Button undo = new Button("Undo", 0, 800, 40, Color.valueOf(Color.WHITE), Color.valueOf(Color.BLACK));
+    private final Button addJ = new Button("Add Joint", 0, 400, 40, Color.WHITE, Color.BLACK);
+    private final Button addN = new Button("Add Node", 0, 600, 40, Color.WHITE, Color.BLACK);
+    private final Button undo = new Button("Undo", 0, 800, 40, Color.WHITE, Color.BLACK);
     protected static class NodeData {
         public float x;
         public float y;
         public final float width;
         public final boolean isStationary;
-        public final Color col;
+        public final int col; // Colour (ARGB)
         public int uuid;
-        public NodeData(float x, float y, float width, boolean isStationary, Color c) {
+        public NodeData(float x, float y, float width, boolean isStationary, int c) {
             this.x = x;
             this.y = y;
             this.width = width;
@@ -75,7 +76,7 @@ public class CreatureBuilder {
     private final ArrayList<Integer> actions = new ArrayList<>();
     public static CreatureBuilder getTestCerature() {
         CreatureBuilder c = new CreatureBuilder();
-        Color color = Color.valueOf(0.5F, 0.5F, 0.5F);
+        int color = Color.rgb(0.5F, 0.5F, 0.5F);
         c.addNode(10.0F, 10.0F, 1.0F, false, color);
         c.addNode(15.0F, 10.0F, 1.0F, false, color);
         c.addNode(10.0F, 15.0F, 1.0F, false, color);
@@ -86,6 +87,7 @@ public class CreatureBuilder {
         c.addJoint(3,0,2.0F, false);
         c.addJoint(0,2,2.0F, false);
         c.addJoint(3,1,2.0F, false);
+        c.resetPos();
         return c;
     }
     public CreatureBuilder() {
@@ -159,7 +161,7 @@ public class CreatureBuilder {
     }
 
     protected void addNode() {
-        this.nodes.add(new NodeData(20, 20, 1, false, Color.valueOf(Color.RED)));
+        this.nodes.add(new NodeData(20, 20, 1, false, Color.RED));
         this.actions.add(0);
     }
 
@@ -183,10 +185,14 @@ public class CreatureBuilder {
         this.joints.add(new JointData(start, end, strength, isRigid));
     }
 
-    public void addNode(float x, float y, float width, boolean isStationary, Color c) {
+    public void addNode(float x, float y, float width, boolean isStationary, int c) {
         this.nodes.add(new NodeData(x, y, width, isStationary, c));
     }
 
+    /**
+     * Moves the blueprint to its spawn position, with its leftmost node at the start line and its lowest node just above the ground
+     * Must be called before creating populations from the blueprint, and not while any are running
+     */
     public void resetPos() {
         // Start pos should be so that the furthest and lowest node is at 0,0
         double minPos_x = Double.POSITIVE_INFINITY;
@@ -213,28 +219,73 @@ public class CreatureBuilder {
     }
 
 
+    /**
+     * Creates an empty physics world for bodies made from this blueprint
+     * @return New world
+     */
+    public PhysicsWorld newWorld() {
+        return new PhysicsWorld(this.nodes.size(), this.joints.size());
+    }
+
+    /**
+     * Returns the joints of a body made by getNodes()
+     * @param connections Nodes of the body
+     * @return Joints of the body
+     */
     public ArrayList<Joint> getJoints(ArrayList<Node> connections) {
-        ArrayList<Joint> clone = new ArrayList<>();
-        for (JointData j : this.joints) {
-            Joint joint;
-            if(j.isStatic) {
-                 joint = new Joint(connections.get(j.parentUUID), connections.get(j.childUUID));
-            } else {
-                joint = new Joint(connections.get(j.parentUUID), connections.get(j.childUUID), j.strength);
-            }
-            clone.add(joint);
+        if (connections.isEmpty()) {
+            return new ArrayList<>();
         }
-        return clone;
+        Node first = connections.get(0);
+        return first.getWorld().joints(first.getBody());
     }
 
+    /**
+     * Makes a new body from the blueprint, in a world of its own
+     * @return Nodes of the body
+     */
     public ArrayList<Node> getNodes() {
-        ArrayList<Node> clone = new ArrayList<>();
-        for (NodeData n : this.nodes) {
-            Node newNode = new Node(n.x, n.y,n.width, n.isStationary, n.col);
-            newNode.node_uuid = n.uuid;
-            clone.add(newNode);
+        PhysicsWorld world = this.newWorld();
+        int body = world.addBody();
+        this.resetBody(world, body);
+        return world.nodes(body);
+    }
+
+    /**
+     * Puts a body of a world in this blueprint's rest pose
+     * @param world World holding the body
+     * @param body Index of the body
+     * @return False if the world's bodies no longer match the blueprint (It was edited since), and the body was left alone
+     */
+    public boolean resetBody(PhysicsWorld world, int body) {
+        if (world.nodesPerBody != this.nodes.size() || world.jointsPerBody != this.joints.size()) {
+            return false;
         }
-        return clone;
+        for (int i = 0; i < this.nodes.size(); i++) {
+            NodeData n = this.nodes.get(i);
+            world.setNode(body, i, n.x, n.y, n.width, n.isStationary, n.col, n.uuid);
+        }
+        for (int j = 0; j < this.joints.size(); j++) {
+            JointData d = this.joints.get(j);
+            world.setJoint(body, j, d.parentUUID, d.childUUID, d.isStatic ? 0 : d.strength);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of nodes a creature made from this blueprint has
+     * @return Number of nodes
+     */
+    public int getNodeCount() {
+        return this.nodes.size();
+    }
+
+    /**
+     * Returns the number of joints a creature made from this blueprint has
+     * @return Number of joints
+     */
+    public int getJointCount() {
+        return this.joints.size();
     }
 
     public boolean isCreatureValid() {
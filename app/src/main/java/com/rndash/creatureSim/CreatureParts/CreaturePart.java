@@ -6,24 +6,34 @@ import com.rndash.creatureSim.GameEngine;
 
 /**
  * Part of the creature that has physics and is rendered to the screen
+ * A view of one node or joint of a PhysicsWorld, which holds the actual state
  */
 public abstract class CreaturePart {
-    protected final Vector screen_pos = new Vector(0.0, 0.0); // Screen position center
-    protected Vector sim_pos = new Vector(0.0, 0.0); // Simulation position center (represents meters in the sim)
-    protected Vector forces = new Vector(0.0, 0.0); // Forces applied in the simulation
-    protected Vector velocities = new Vector(0.0, 0.0); // Velocities applied in the simulation
+    protected final PhysicsWorld world; // World holding the part's state
+    protected final int body; // Index of the body the part belongs to in the world
+    protected final int index; // Index of the part within its body, as in the blueprint
+
+    protected CreaturePart(PhysicsWorld world, int body, int index) {
+        this.world = world;
+        this.body = body;
+        this.index = index;
+    }
 
     /**
-     * Returns the velocities vector
-     * @return  velocity Vector
+     * Returns the world holding the part's state
+     * @return Physics world
      */
-    public Vector getVelocities() { return this.velocities; }
+    public PhysicsWorld getWorld() {
+        return this.world;
+    }
 
     /**
-     * Returns the force vector
-     * @return force Vector
+     * Returns the index of the body the part belongs to in its world
+     * @return Index of the body
      */
-    public Vector getForces() { return this.forces; }
+    public int getBody() {
+        return this.body;
+    }
 
     /**
      * Renders the object on screen
@@ -33,24 +43,20 @@ public abstract class CreaturePart {
     public abstract void render(Canvas c, Paint p);
 
     /**
-     * Updates the screen-space coordinates based on the simulation position
-     * @param sim_pos Simulation position vector
+     * Converts a simulation X position to screen space
+     * @param simX Simulation X position (meters)
+     * @return Screen X position (pixels)
      */
-    protected void updateSimCoords(Vector sim_pos) {
-            this.screen_pos.setX((sim_pos.getX() * GameEngine.PIXELS_PER_M) + (GameEngine.CAMERA_POS_SIM_X * GameEngine.PIXELS_PER_M));
-            this.screen_pos.setY(GameEngine.max_screen_height - ((float) sim_pos.getY() * GameEngine.PIXELS_PER_M));
+    protected static float screenX(double simX) {
+        return (float) ((simX * GameEngine.PIXELS_PER_M) + (GameEngine.CAMERA_POS_SIM_X * GameEngine.PIXELS_PER_M));
     }
 
     /**
-     * Updates the physics simulation
-     * @param stepMillis Milliseconds elapsed since last physics update
+     * Converts a simulation Y position to screen space
+     * @param simY Simulation Y position (meters)
+     * @return Screen Y position (pixels)
      */
-    public void simStepUpdate(long stepMillis) {
+    protected static float screenY(double simY) {
+        return GameEngine.max_screen_height - ((float) simY * GameEngine.PIXELS_PER_M);
     }
-
-    /**
-     * Returns the Simulation position
-     * @return Simulation position center of this object
-     */
-    public Vector getSimPos() { return this.sim_pos; }
 }
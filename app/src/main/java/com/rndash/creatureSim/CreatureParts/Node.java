@@ -1,65 +1,94 @@
 package com.rndash.creatureSim.CreatureParts;
 
 import android.graphics.Canvas;
-import android.graphics.Color;
 import android.graphics.Paint;
 import com.rndash.creatureSim.GameEngine;
 
 /**
  * Represents a node of the creature.
- * These act
+ * A view of one node of a PhysicsWorld, which does the actual simulation
  */
 public class Node extends CreaturePart {
-    protected static int UUID = 0; // ID Counter (to generate UUIDs)
-    public final float radius; // Radius of the node
-    private final float mass_newtons; // Mass in newtons
-    public int node_uuid; // Unique ID
-    private final boolean isStationary; // Debugging only
-    private Color renderColor; // Render colour of the node
-    public Node(float sim_x, float sim_y, float width, boolean isStationary, Color renderColour) {
-        this.sim_pos = new Vector(sim_x, sim_y);
-        this.radius = width / 2.0F;
-        // KG to newtons, let mass = area of node/2
-        this.mass_newtons = (float) ((Math.PI * Math.pow(radius, 2.0)*9.81/2));
-        updateSimCoords(this.sim_pos);
-        this.node_uuid = UUID;
-        UUID++;
-        this.isStationary = isStationary;
-        this.renderColor = renderColour;
+    Node(PhysicsWorld world, int body, int index) {
+        super(world, body, index);
+    }
+
+    /**
+     * Returns the index of the node's per body state in the world's arrays
+     * @return Index in the node arrays
+     */
+    private int n() {
+        return this.world.node(this.body, this.index);
     }
 
     @Override
     public void render(Canvas c, Paint p) {
-        p.setColor(renderColor.toArgb());
-        c.drawCircle((float) this.screen_pos.getX(), (float) this.screen_pos.getY(), this.radius * GameEngine.PIXELS_PER_M, p);
+        p.setColor(this.getRenderColor());
+        c.drawCircle(screenX(this.getX()), screenY(this.getY()), this.getRadius() * GameEngine.PIXELS_PER_M, p);
     }
 
-    @Override
-    public void simStepUpdate(long stepMillis) {
-        // Only do force calculations if the node is not fixed in world
-        if(!isStationary) {
-            // Calculate gravity force
-            this.forces = this.forces.add(new Vector(0, -9.81).times(mass_newtons));
-            // Add forces to velocities
-            this.velocities = this.velocities.add(this.forces.times(mass_newtons * (stepMillis/1000F)));
-            // Times 0.9 to add for some overall drag
-            this.velocities = this.velocities.times(0.9);
-            // Now add velocities to position vector to get new position of body
-            this.sim_pos = this.sim_pos.add(velocities.times((stepMillis/1000F)));
-            // Check if the node is touching the floor
-            if (isOnGround()) {
-                this.sim_pos.setY(2);
-                // Drag the feet on the ground by * 0.2
-                this.velocities.setX(this.velocities.getX() * 0.2);
-                if (this.velocities.getY() < 0) {
-                    // Bouncing detected, retain some negative Y velocity
-                    this.velocities.setY(this.velocities.getY() * -0.2);
-                }
-            }
-            // Reset force vector for next step cycle
-            this.forces = new Vector(0, 0);
-        }
-        this.updateSimCoords(this.sim_pos);
+    /**
+     * Returns the simulation X position
+     * @return X position (meters)
+     */
+    public double getX() {
+        return this.world.x[this.n()];
+    }
+
+    /**
+     * Returns the simulation Y position
+     * @return Y position (meters)
+     */
+    public double getY() {
+        return this.world.y[this.n()];
+    }
+
+    /**
+     * Returns the simulation X position before the last physics step
+     * @return X position (meters)
+     */
+    public double getPreviousX() {
+        return this.world.previousX[this.n()];
+    }
+
+    /**
+     * Returns the simulation Y position before the last physics step
+     * @return Y position (meters)
+     */
+    public double getPreviousY() {
+        return this.world.previousY[this.n()];
+    }
+
+    /**
+     * Returns the X velocity
+     * @return X velocity
+     */
+    public double getVelocityX() {
+        return this.world.vx[this.n()];
+    }
+
+    /**
+     * Returns the Y velocity
+     * @return Y velocity
+     */
+    public double getVelocityY() {
+        return this.world.vy[this.n()];
+    }
+
+    /**
+     * Returns the radius of the node
+     * @return Radius (meters)
+     */
+    public float getRadius() {
+        return this.world.radius[this.index];
+    }
+
+    /**
+     * Returns the ID of the blueprint node this node was made from
+     * @return Node ID
+     */
+    public int getUUID() {
+        return this.world.uuid[this.index];
     }
 
     /**
@@ -67,24 +96,22 @@ public class Node extends CreaturePart {
      * @return Boolean indicating if node is touching the floor
      */
     public boolean isOnGround() {
-        return this.sim_pos.getY() <= 2;
+        return this.getY() <= 2;
     }
 
     /**
-     * Sets the render colour of the node
-     * @param c Colour of the node
+     * Returns the render colour of the node
+     * @return Colour of the node (ARGB)
      */
-    public void setRenderColor(Color c) {
-        this.renderColor = c;
+    public int getRenderColor() {
+        return this.world.color[this.n()];
     }
 
     /**
-     * Generates a copy of this node without references
-     * @return A new clone of this node
+     * Sets the render colour of the node
+     * @param c Colour of the node (ARGB)
      */
-    public Node clone() {
-        Node n = new Node((float) this.getSimPos().getX(), (float) this.getSimPos().getY(), radius*2, isStationary, this.renderColor);
-        n.node_uuid = this.node_uuid;
-        return n;
+    public void setRenderColor(int c) {
+        this.world.color[this.n()] = c;
     }
 }
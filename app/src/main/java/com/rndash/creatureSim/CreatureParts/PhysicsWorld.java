@@ -0,0 +1,459 @@
+package com.rndash.creatureSim.CreatureParts;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Physics state of a set of creature bodies, held as flat primitive arrays
+ *
+ * Every body in a world is made from the same blueprint, so they share one body plan: which nodes
+ * each joint connects, joint strengths, node sizes and masses. The plan is held once, and only the
+ * state that differs between bodies is held per body. That state is laid out as a [node x body]
+ * matrix: node i of body b is at index i * capacity + b of the node arrays (and likewise for joints),
+ * so the same node of every body sits side by side. Each body is one lane of the matrix.
+ *
+ * stepRange() runs the step kernel over a run of lanes in lock step: each joint and node of the plan
+ * is read once, then applied to every lane in a tight loop over contiguous arrays, which the JIT can
+ * unroll and vectorise. Stepping one body is the same kernel over a single lane, so lock step and
+ * body by body stepping give identical results.
+ * Node and Joint are views of one node or joint of one body, for rendering and sensing.
+ *
+ * Not thread safe, but different lanes can be stepped on different threads
+ */
+public final class PhysicsWorld {
+    private static final double GRAVITY = -9.81; // m/s^2
+    private static final double GROUND = 2; // Height of the ground (meters)
+
+    public final int nodesPerBody; // Nodes in each body
+    public final int jointsPerBody; // Joints in each body
+    private int bodies = 0; // Number of bodies in the world
+    private int capacity = 0; // Number of bodies the arrays have room for. The stride between nodes of one body
+
+    // Body plan, per node
+    final float[] radius; // Radius (meters)
+    final float[] mass; // Mass (newtons)
+    final boolean[] stationary; // Is the node fixed in the world (Debugging only)
+    final int[] uuid; // ID of the blueprint node
+
+    // Body plan, per joint
+    final int[] parent; // Index of the anchor node within a body
+    final int[] child; // Index of the suspend node within a body
+    final float[] strength; // Spring strength
+    final boolean[] rigid; // Is the joint a rigid body rather than a muscle
+
+    // Nodes, per body
+    double[] x = new double[0]; // Simulation X position (meters)
+    double[] y = new double[0]; // Simulation Y position (meters)
+    double[] previousX = new double[0]; // X position before the last step, for render interpolation
+    double[] previousY = new double[0]; // Y position before the last step, for render interpolation
+    double[] vx = new double[0]; // X velocity
+    double[] vy = new double[0]; // Y velocity
+    double[] fx = new double[0]; // X force applied this step
+    double[] fy = new double[0]; // Y force applied this step
+    int[] color = new int[0]; // Render colour (ARGB)
+
+    // Joints, per body
+    double[] defaultLength = new double[0]; // Resting length
+    double[] targetLength = new double[0]; // Length the joint is pulling towards
+    int[] stepsContracted = new int[0]; // Counter for muscle contraction to avoid explosive contractions / expansions
+    boolean[] contracting = new boolean[0]; // Is the joint contracting
+
+    private final ArrayList<ArrayList<Node>> nodeViews = new ArrayList<>(); // Node views of each body
+    private final ArrayList<ArrayList<Joint>> jointViews = new ArrayList<>(); // Joint views of each body
+
+    /**
+     * Creates an empty world
+     * @param nodesPerBody Nodes in each body
+     * @param jointsPerBody Joints in each body
+     */
+    public PhysicsWorld(int nodesPerBody, int jointsPerBody) {
+        this.nodesPerBody = nodesPerBody;
+        this.jointsPerBody = jointsPerBody;
+        this.radius = new float[nodesPerBody];
+        this.mass = new float[nodesPerBody];
+        this.stationary = new boolean[nodesPerBody];
+        this.uuid = new int[nodesPerBody];
+        this.parent = new int[jointsPerBody];
+        this.child = new int[jointsPerBody];
+        this.strength = new float[jointsPerBody];
+        this.rigid = new boolean[jointsPerBody];
+    }
+
+    /**
+     * Returns the number of bodies in the world
+     * @return Number of bodies
+     */
+    public int size() {
+        return this.bodies;
+    }
+
+    /**
+     * Adds a body to the world. Its nodes and joints must be set before it is stepped
+     * @return Index of the new body
+     */
+    public int addBody() {
+        if (this.bodies == this.capacity) {
+            this.grow(Math.max(4, this.capacity * 2));
+        }
+        int body = this.bodies++;
+        ArrayList<Node> nodes = new ArrayList<>(this.nodesPerBody);
+        for (int i = 0; i < this.nodesPerBody; i++) {
+            nodes.add(new Node(this, body, i));
+        }
+        ArrayList<Joint> joints = new ArrayList<>(this.jointsPerBody);
+        for (int j = 0; j < this.jointsPerBody; j++) {
+            joints.add(new Joint(this, body, j));
+        }
+        this.nodeViews.add(nodes);
+        this.jointViews.add(joints);
+        return body;
+    }
+
+    /**
+     * Makes room for more bodies. As the stride between rows changes, every row is moved
+     * @param capacity New number of bodies
+     */
+    private void grow(int capacity) {
+        this.x = this.widen(this.x, this.nodesPerBody, capacity);
+        this.y = this.widen(this.y, this.nodesPerBody, capacity);
+        this.previousX = this.widen(this.previousX, this.nodesPerBody, capacity);
+        this.previousY = this.widen(this.previousY, this.nodesPerBody, capacity);
+        this.vx = this.widen(this.vx, this.nodesPerBody, capacity);
+        this.vy = this.widen(this.vy, this.nodesPerBody, capacity);
+        this.fx = this.widen(this.fx, this.nodesPerBody, capacity);
+        this.fy = this.widen(this.fy, this.nodesPerBody, capacity);
+        int[] color = new int[this.nodesPerBody * capacity];
+        for (int i = 0; i < this.nodesPerBody; i++) {
+            System.arraycopy(this.color, i * this.capacity, color, i * capacity, this.bodies);
+        }
+        this.color = color;
+        this.defaultLength = this.widen(this.defaultLength, this.jointsPerBody, capacity);
+        this.targetLength = this.widen(this.targetLength, this.jointsPerBody, capacity);
+        int[] stepsContracted = new int[this.jointsPerBody * capacity];
+        boolean[] contracting = new boolean[this.jointsPerBody * capacity];
+        for (int j = 0; j < this.jointsPerBody; j++) {
+            System.arraycopy(this.stepsContracted, j * this.capacity, stepsContracted, j * capacity, this.bodies);
+            System.arraycopy(this.contracting, j * this.capacity, contracting, j * capacity, this.bodies);
+        }
+        this.stepsContracted = stepsContracted;
+        this.contracting = contracting;
+        this.capacity = capacity;
+    }
+
+    private double[] widen(double[] rows, int count, int capacity) {
+        double[] wider = new double[count * capacity];
+        for (int r = 0; r < count; r++) {
+            System.arraycopy(rows, r * this.capacity, wider, r * capacity, this.bodies);
+        }
+        return wider;
+    }
+
+    /**
+     * Returns the index of a node of a body in the node arrays
+     * Only valid until the next body is added, as the world may grow
+     * @param body Index of the body
+     * @param i Index of the node within the body
+     * @return Index in the node arrays
+     */
+    int node(int body, int i) {
+        return i * this.capacity + body;
+    }
+
+    /**
+     * Returns the index of a joint of a body in the joint arrays
+     * Only valid until the next body is added, as the world may grow
+     * @param body Index of the body
+     * @param j Index of the joint within the body
+     * @return Index in the joint arrays
+     */
+    int joint(int body, int j) {
+        return j * this.capacity + body;
+    }
+
+    /**
+     * Returns the nodes of a body. The list is reused, and must not be changed
+     * @param body Index of the body
+     * @return Node views, in blueprint order
+     */
+    public ArrayList<Node> nodes(int body) {
+        return this.nodeViews.get(body);
+    }
+
+    /**
+     * Returns the joints of a body. The list is reused, and must not be changed
+     * @param body Index of the body
+     * @return Joint views, in blueprint order
+     */
+    public ArrayList<Joint> joints(int body) {
+        return this.jointViews.get(body);
+    }
+
+    /**
+     * Puts a node of a body at rest
+     * The width and whether the node is stationary are part of the body plan, so apply to every body
+     * @param body Index of the body
+     * @param i Index of the node within the body
+     * @param simX Simulation X position (meters)
+     * @param simY Simulation Y position (meters)
+     * @param width Width of the node (meters)
+     * @param isStationary Is the node fixed in the world (Debugging only)
+     * @param colour Render colour (ARGB)
+     * @param id ID of the blueprint node
+     */
+    public void setNode(int body, int i, float simX, float simY, float width, boolean isStationary, int colour, int id) {
+        int n = this.node(body, i);
+        this.x[n] = simX;
+        this.y[n] = simY;
+        this.previousX[n] = simX;
+        this.previousY[n] = simY;
+        this.vx[n] = 0;
+        this.vy[n] = 0;
+        this.fx[n] = 0;
+        this.fy[n] = 0;
+        this.color[n] = colour;
+        this.radius[i] = width / 2.0F;
+        // KG to newtons, let mass = area of node/2
+        this.mass[i] = (float) ((Math.PI * Math.pow(this.radius[i], 2.0)*9.81/2));
+        this.stationary[i] = isStationary;
+        this.uuid[i] = id;
+    }
+
+    /**
+     * Relaxes a joint of a body to its resting length. The nodes of the body must already be set
+     * The nodes it connects and its strength are part of the body plan, so apply to every body
+     * @param body Index of the body
+     * @param j Index of the joint within the body
+     * @param parentNode Index of the anchor node within the body
+     * @param childNode Index of the suspend node within the body
+     * @param strength Strength rating (from 0.1 - 10). If 0 is specified, the joint acts like a rigid body
+     */
+    public void setJoint(int body, int j, int parentNode, int childNode, float strength) {
+        this.parent[j] = parentNode;
+        this.child[j] = childNode;
+        this.rigid[j] = strength == 0.0;
+        this.strength[j] = this.rigid[j] ? 0 : strength * 10;
+        int k = this.joint(body, j);
+        this.defaultLength[k] = this.length(body, j);
+        this.targetLength[k] = this.defaultLength[k];
+        this.stepsContracted[k] = 0;
+        this.contracting[k] = false;
+    }
+
+    /**
+     * Returns the current length of a joint
+     * @param body Index of the body
+     * @param j Index of the joint within the body
+     * @return Length of the joint (meters)
+     */
+    double length(int body, int j) {
+        int p = this.node(body, this.parent[j]);
+        int c = this.node(body, this.child[j]);
+        double dx = this.x[p] - this.x[c];
+        double dy = this.y[p] - this.y[c];
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * Runs one physics step on a body
+     * @param body Index of the body
+     * @param stepMillis Interval in MS for the simulation
+     */
+    public void step(int body, long stepMillis) {
+        this.stepRange(body, body + 1, stepMillis);
+    }
+
+    /**
+     * Runs one physics step on every body in the world, in lock step
+     * @param stepMillis Interval in MS for the simulation
+     */
+    public void stepAll(long stepMillis) {
+        this.stepRange(0, this.bodies, stepMillis);
+    }
+
+    /**
+     * Runs one physics step on a run of bodies, in lock step. Springs first, then the nodes they pull on
+     * Each body gets exactly the arithmetic it would get stepped on its own
+     * @param from Index of the first body
+     * @param to Index after the last body
+     * @param stepMillis Interval in MS for the simulation
+     */
+    public void stepRange(int from, int to, long stepMillis) {
+        for (int j = 0; j < this.jointsPerBody; j++) {
+            this.stepJoint(j, from, to);
+        }
+        float seconds = stepMillis / 1000F;
+        for (int i = 0; i < this.nodesPerBody; i++) {
+            this.stepNode(i, from, to, seconds);
+        }
+    }
+
+    /**
+     * Applies the spring force of a joint of the body plan to its nodes, in a run of bodies
+     * @param j Index of the joint within a body
+     * @param from Index of the first body
+     * @param to Index after the last body
+     */
+    private void stepJoint(int j, int from, int to) {
+        // The plan is read once, then applied to every lane
+        final int k0 = j * this.capacity;
+        final int p0 = this.parent[j] * this.capacity;
+        final int c0 = this.child[j] * this.capacity;
+        final boolean rigid = this.rigid[j];
+        final float strength = this.strength[j];
+        final double[] x = this.x;
+        final double[] y = this.y;
+        final double[] fx = this.fx;
+        final double[] fy = this.fy;
+        final double[] defaultLength = this.defaultLength;
+        final double[] targetLength = this.targetLength;
+        final int[] stepsContracted = this.stepsContracted;
+        final boolean[] contracting = this.contracting;
+        for (int b = from; b < to; b++) {
+            int k = k0 + b;
+            int p = p0 + b;
+            int c = c0 + b;
+            double dx = x[p] - x[c];
+            double dy = y[p] - y[c];
+            double len = Math.sqrt(dx * dx + dy * dy);
+            double rest = defaultLength[k];
+            // If the muscle is contracting, we should slowly decrease the resting length
+            // To avoid an explosive contraction
+            if (!rigid || len <= rest * 0.5) {
+                if (contracting[k] && targetLength[k] > (rest * 0.5)) {
+                    stepsContracted[k]++;
+                    targetLength[k] -= strength / 25; // 4cm per frame of contraction
+                }
+                // Same logic but to avoid explosive expansion
+                else if (stepsContracted[k] > 0 && targetLength[k] < rest) {
+                    stepsContracted[k]--;
+                    targetLength[k] += strength / 25; // 4cm per frame of contraction
+                }
+            }
+            // Implementation of hookes law for spring force calculation
+            double distanceFromRest = len - targetLength[k]; // Get how far from resting position we are
+            double hooksValue;
+            if (rigid) {
+                hooksValue = -100 * distanceFromRest; // Static shouldn't flex. Maximum hooks law value
+            } else {
+                // * 9.81 such that we go back to kg, which is the mass of the node
+                hooksValue = -(strength*9.81) * distanceFromRest;
+            }
+            // Normalise the direction
+            if (len != 0) {
+                dx /= len;
+                dy /= len;
+            }
+            // Apply the forces to parent and child nodes.
+            // Times by 1.25 so it acts like a muscle with body and not a metal spring
+            double forceX = dx * hooksValue * 1.25;
+            double forceY = dy * hooksValue * 1.25;
+            fx[p] += forceX;
+            fy[p] += forceY;
+            fx[c] -= forceX;
+            fy[c] -= forceY;
+        }
+    }
+
+    /**
+     * Moves a node of the body plan by the forces applied to it, in a run of bodies
+     * @param i Index of the node within a body
+     * @param from Index of the first body
+     * @param to Index after the last body
+     * @param seconds Interval of the step in seconds
+     */
+    private void stepNode(int i, int from, int to, float seconds) {
+        final int first = i * this.capacity + from;
+        final int last = i * this.capacity + to;
+        System.arraycopy(this.x, first, this.previousX, first, to - from);
+        System.arraycopy(this.y, first, this.previousY, first, to - from);
+        // Only do force calculations if the node is not fixed in world
+        if (this.stationary[i]) {
+            return;
+        }
+        final float mass = this.mass[i];
+        final double gravity = GRAVITY * mass; // Gravity force
+        final float impulse = mass * seconds;
+        final double[] x = this.x;
+        final double[] y = this.y;
+        final double[] vx = this.vx;
+        final double[] vy = this.vy;
+        final double[] fx = this.fx;
+        final double[] fy = this.fy;
+        for (int n = first; n < last; n++) {
+            fy[n] += gravity;
+            // Add forces to velocities, times 0.9 to add for some overall drag
+            vx[n] = (vx[n] + fx[n] * impulse) * 0.9;
+            vy[n] = (vy[n] + fy[n] * impulse) * 0.9;
+            // Now add velocities to position to get new position of body
+            x[n] += vx[n] * seconds;
+            y[n] += vy[n] * seconds;
+            // Check if the node is touching the floor
+            if (y[n] <= GROUND) {
+                y[n] = GROUND;
+                // Drag the feet on the ground by * 0.2
+                vx[n] *= 0.2;
+                if (vy[n] < 0) {
+                    // Bouncing detected, retain some negative Y velocity
+                    vy[n] *= -0.2;
+                }
+            }
+        }
+        // Reset forces for next step cycle
+        Arrays.fill(fx, first, last, 0);
+        Arrays.fill(fy, first, last, 0);
+    }
+
+    /**
+     * Returns the average X position of the nodes of a body
+     * @param body Index of the body
+     * @return Average X position (meters)
+     */
+    public double averageX(int body) {
+        return this.average(this.x, body);
+    }
+
+    /**
+     * Returns the average Y position of the nodes of a body
+     * @param body Index of the body
+     * @return Average Y position (meters)
+     */
+    public double averageY(int body) {
+        return this.average(this.y, body);
+    }
+
+    private double average(double[] values, int body) {
+        double sum = 0;
+        for (int i = 0; i < this.nodesPerBody; i++) {
+            sum += values[this.node(body, i)];
+        }
+        return sum / this.nodesPerBody;
+    }
+
+    /**
+     * Writes the AI inputs of a body: for each node, its X and Y velocities followed by its X and Y forces
+     * @param body Index of the body
+     * @param dst Array to write to
+     * @param offset Position in [dst] to start writing at
+     */
+    public void writeVision(int body, double[] dst, int offset) {
+        for (int i = 0; i < this.nodesPerBody; i++) {
+            int n = this.node(body, i);
+            dst[offset + i*4] = this.vx[n];
+            dst[offset + i*4+1] = this.vy[n];
+            dst[offset + i*4+2] = this.fx[n];
+            dst[offset + i*4+3] = this.fy[n];
+        }
+    }
+
+    /**
+     * Sets which joints of a body are contracting: a joint relaxes if its output is under 0.5, otherwise it contracts
+     * @param body Index of the body
+     * @param decision Network outputs, one per joint
+     * @param offset Position in [decision] of the first output
+     */
+    public void setContracting(int body, double[] decision, int offset) {
+        for (int j = 0; j < this.jointsPerBody; j++) {
+            this.contracting[this.joint(body, j)] = !(decision[offset + j] < 0.5);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.rndash.creatureSim;
+
+import com.rndash.creatureSim.AI.Activation;
+import com.rndash.creatureSim.AI.HistoryCompaction;
+import com.rndash.creatureSim.Species.SelectionStrategy;
+
+/**
+ * Every tunable parameter of the evolution, in one immutable object
+ *
+ * A population and everything in it reads its parameters from the config it was created with,
+ * so populations with different configs can run side by side (See SweepRunner).
+ * Build one with EvolutionConfig.builder(), or start from an existing config with toBuilder().
+ */
+public final class EvolutionConfig {
+    public static final EvolutionConfig DEFAULT = builder().build(); // The parameters the simulation was tuned with
+
+    public final int populationSize; // Number of creatures in the population
+    public final Activation activation; // Activation function of every brain
+    public final SelectionStrategy selection; // How parents are picked within a species
+
+    // Speciation
+    public final double excessCoeff; // Weight of excess and disjoint genes in the compatibility distance
+    public final double weightDiffCoeff; // Weight of the average weight difference in the compatibility distance
+    public final double compatibilityThreshold; // Distance under which 2 brains are the same species
+
+    // Mutation
+    public final double weightMutationRate; // Chance a child's weights are mutated
+    public final double weightReplaceRate; // Chance a mutated weight is replaced rather than nudged
+    public final double weightPerturbation; // Standard deviation of a weight nudge
+    public final double addConnectionRate; // Chance a child gains a new connection
+    public final double addNodeRate; // Chance a child gains a new neuron
+    public final double cloneRate; // Chance a child is a twin of its parent rather than a crossover
+
+    // Staleness
+    public final int speciesStalenessLimit; // Generations a species may go without improving before it is killed
+    public final int creatureStalenessLimit; // AI ticks a creature may go without moving forward before it is killed
+
+    // Bookkeeping
+    public final HistoryCompaction historyCompaction; // Which mutations the population forgets after each generation
+
+    // Timing
+    public final long physicsStepMillis; // Simulated time per physics step. Fixed, so a brain always scores the same
+    public final long aiStepMillis; // Simulated time between AI ticks
+
+    private EvolutionConfig(Builder b) {
+        this.populationSize = b.populationSize;
+        this.activation = b.activation;
+        this.selection = b.selection;
+        this.excessCoeff = b.excessCoeff;
+        this.weightDiffCoeff = b.weightDiffCoeff;
+        this.compatibilityThreshold = b.compatibilityThreshold;
+        this.weightMutationRate = b.weightMutationRate;
+        this.weightReplaceRate = b.weightReplaceRate;
+        this.weightPerturbation = b.weightPerturbation;
+        this.addConnectionRate = b.addConnectionRate;
+        this.addNodeRate = b.addNodeRate;
+        this.cloneRate = b.cloneRate;
+        this.speciesStalenessLimit = b.speciesStalenessLimit;
+        this.creatureStalenessLimit = b.creatureStalenessLimit;
+        this.historyCompaction = b.historyCompaction;
+        this.physicsStepMillis = b.physicsStepMillis;
+        this.aiStepMillis = b.aiStepMillis;
+    }
+
+    /**
+     * Starts a new config from the default parameters
+     * @return Builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Starts a new config from this one's parameters
+     * @return Builder
+     */
+    public Builder toBuilder() {
+        Builder b = new Builder();
+        b.populationSize = this.populationSize;
+        b.activation = this.activation;
+        b.selection = this.selection;
+        b.excessCoeff = this.excessCoeff;
+        b.weightDiffCoeff = this.weightDiffCoeff;
+        b.compatibilityThreshold = this.compatibilityThreshold;
+        b.weightMutationRate = this.weightMutationRate;
+        b.weightReplaceRate = this.weightReplaceRate;
+        b.weightPerturbation = this.weightPerturbation;
+        b.addConnectionRate = this.addConnectionRate;
+        b.addNodeRate = this.addNodeRate;
+        b.cloneRate = this.cloneRate;
+        b.speciesStalenessLimit = this.speciesStalenessLimit;
+        b.creatureStalenessLimit = this.creatureStalenessLimit;
+        b.historyCompaction = this.historyCompaction;
+        b.physicsStepMillis = this.physicsStepMillis;
+        b.aiStepMillis = this.aiStepMillis;
+        return b;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("size=%d activation=%s selection=%s excess=%.2f weightDiff=%.2f threshold=%.2f "
+                        + "weightMutation=%.3f weightReplace=%.3f perturbation=%.3f addConnection=%.3f addNode=%.3f clone=%.3f "
+                        + "speciesStaleness=%d creatureStaleness=%d compaction=%s physicsStep=%dms aiStep=%dms",
+                this.populationSize, this.activation, this.selection, this.excessCoeff, this.weightDiffCoeff, this.compatibilityThreshold,
+                this.weightMutationRate, this.weightReplaceRate, this.weightPerturbation, this.addConnectionRate, this.addNodeRate, this.cloneRate,
+                this.speciesStalenessLimit, this.creatureStalenessLimit, this.historyCompaction,
+                this.physicsStepMillis, this.aiStepMillis);
+    }
+
+    /**
+     * Builds an EvolutionConfig. Every parameter starts at its default
+     */
+    public static final class Builder {
+        private int populationSize = 10;
+        private Activation activation = Activation.EXACT;
+        private SelectionStrategy selection = SelectionStrategy.ROULETTE;
+        private double excessCoeff = 1;
+        private double weightDiffCoeff = 0.5;
+        private double compatibilityThreshold = 3;
+        private double weightMutationRate = 0.8;
+        private double weightReplaceRate = 0.1;
+        private double weightPerturbation = 1.0 / 50;
+        private double addConnectionRate = 0.05;
+        private double addNodeRate = 0.01;
+        private double cloneRate = 0.25;
+        private int speciesStalenessLimit = 15;
+        private int creatureStalenessLimit = 500;
+        private HistoryCompaction historyCompaction = HistoryCompaction.UNUSED;
+        private long physicsStepMillis = 20; // 50 physics steps per second
+        private long aiStepMillis = 100; // 10 AI ticks per second, if not the creatures look like a jittery mess!
+
+        private Builder() {
+        }
+
+        public Builder populationSize(int populationSize) {
+            if (populationSize < 1) {
+                throw new IllegalArgumentException("Population size must be at least 1");
+            }
+            this.populationSize = populationSize;
+            return this;
+        }
+
+        public Builder activation(Activation activation) {
+            this.activation = activation;
+            return this;
+        }
+
+        public Builder selection(SelectionStrategy selection) {
+            this.selection = selection;
+            return this;
+        }
+
+        public Builder excessCoeff(double excessCoeff) {
+            this.excessCoeff = excessCoeff;
+            return this;
+        }
+
+        public Builder weightDiffCoeff(double weightDiffCoeff) {
+            this.weightDiffCoeff = weightDiffCoeff;
+            return this;
+        }
+
+        public Builder compatibilityThreshold(double compatibilityThreshold) {
+            this.compatibilityThreshold = compatibilityThreshold;
+            return this;
+        }
+
+        public Builder weightMutationRate(double weightMutationRate) {
+            this.weightMutationRate = weightMutationRate;
+            return this;
+        }
+
+        public Builder weightReplaceRate(double weightReplaceRate) {
+            this.weightReplaceRate = weightReplaceRate;
+            return this;
+        }
+
+        public Builder weightPerturbation(double weightPerturbation) {
+            this.weightPerturbation = weightPerturbation;
+            return this;
+        }
+
+        public Builder addConnectionRate(double addConnectionRate) {
+            this.addConnectionRate = addConnectionRate;
+            return this;
+        }
+
+        public Builder addNodeRate(double addNodeRate) {
+            this.addNodeRate = addNodeRate;
+            return this;
+        }
+
+        public Builder cloneRate(double cloneRate) {
+            this.cloneRate = cloneRate;
+            return this;
+        }
+
+        public Builder speciesStalenessLimit(int speciesStalenessLimit) {
+            this.speciesStalenessLimit = speciesStalenessLimit;
+            return this;
+        }
+
+        public Builder creatureStalenessLimit(int creatureStalenessLimit) {
+            this.creatureStalenessLimit = creatureStalenessLimit;
+            return this;
+        }
+
+        public Builder historyCompaction(HistoryCompaction historyCompaction) {
+            this.historyCompaction = historyCompaction;
+            return this;
+        }
+
+        public Builder physicsStepMillis(long physicsStepMillis) {
+            if (physicsStepMillis < 1) {
+                throw new IllegalArgumentException("Physics step must be at least 1ms");
+            }
+            this.physicsStepMillis = physicsStepMillis;
+            return this;
+        }
+
+        public Builder aiStepMillis(long aiStepMillis) {
+            if (aiStepMillis < 1) {
+                throw new IllegalArgumentException("AI step must be at least 1ms");
+            }
+            this.aiStepMillis = aiStepMillis;
+            return this;
+        }
+
+        /**
+         * Builds the config
+         * @return New, immutable config
+         */
+        public EvolutionConfig build() {
+            return new EvolutionConfig(this);
+        }
+    }
+}
@@ -11,18 +11,20 @@ import android.view.View;
 import com.rndash.creatureSim.Creator.Button;
 import com.rndash.creatureSim.Creator.ButtonAction;
 import com.rndash.creatureSim.Species.Population;
+import com.rndash.creatureSim.Species.PopulationSnapshot;
 
 public class GameEngine extends View {
     public static int PIXELS_PER_M = 200;
     public static final double CAMERA_POS_SIM_X = 0;
     public static int max_screen_width = 0;
     public static int max_screen_height = 0;
-    public static boolean inEditMode = true;
-    boolean hasWon = false;
+    public static volatile boolean inEditMode = true; // Read by the simulation thread
+    volatile boolean hasWon = false; // Set by the simulation thread
     private final CreatureBuilder cb = new CreatureBuilder();
     final int animation_delay;
-    final Button b = new Button("Play Simulation", 0, 200, 40, Color.valueOf(Color.WHITE), Color.valueOf(Color.BLACK));
-    private Population population;
+    final Button b = new Button("Play Simulation", 0, 200, 40, Color.WHITE, Color.BLACK);
+    private volatile Population population; // Set by the UI thread, simulated by the simulation thread
+    private final StopCondition stopCondition = new StopCondition(Creature.TARGET_DISTANCE, 11); // When the simulation shows the winner screen
     final Paint p;
     final Thread physicsSim;
 
@@ -38,7 +40,8 @@ public class GameEngine extends View {
                 if (inEditMode) {
                     inEditMode = false;
                     b.changeText("Edit creature");
-                    setPopulation(new Population(cb, 10));
+                    cb.resetPos();
+                    setPopulation(new Population(cb, EvolutionConfig.DEFAULT, System.nanoTime()));
                 } else {
                     cb.assumeEditPosition();
                     inEditMode = true;
@@ -60,13 +63,14 @@ public class GameEngine extends View {
         canvas.drawRGB(135,206,235);
         p.setColor(Color.GREEN);
         canvas.drawRect(0.0f, max_screen_height-(2*PIXELS_PER_M), max_screen_width, max_screen_height, p);
-        // draw all the creatures
-        population.render(canvas, p);
+        // draw all the creatures, from the newest tick the simulation has finished
+        PopulationSnapshot snapshot = population.latestSnapshot();
+        snapshot.render(canvas, p, snapshot.interpolation(System.nanoTime()));
         p.setColor(Color.BLACK);
         p.setTextSize(48);
-        canvas.drawText(String.format("Max distance: %.2f meters",population.maxTravelled), 10F,50F, p);
-        canvas.drawText(String.format("Generation: %d",population.batchNo), 10F,100F, p);
-        canvas.drawText(String.format("Mutations: %d",population.history.size()), 10F,150F, p);
+        canvas.drawText(String.format("Max distance: %.2f meters",snapshot.maxTravelled), 10F,50F, p);
+        canvas.drawText(String.format("Generation: %d",snapshot.batchNo), 10F,100F, p);
+        canvas.drawText(String.format("Mutations: %d",snapshot.mutations), 10F,150F, p);
         canvas.drawText("CHAMPION NETWORK", 750F,50F, p);
     }
     private void drawWinner(Canvas canvas) {
@@ -77,7 +81,7 @@ public class GameEngine extends View {
         p.setTextSize(72);
         p.setColor(Color.RED);
         p.setFakeBoldText(true);
-        if (population.maxTravelled >= 100) {
+        if (population.latestSnapshot().maxTravelled >= stopCondition.targetDistance) {
             canvas.drawText("WINNER!", 750F, 50F, p);
         } else {
             canvas.drawText("LOOSER!", 750F, 50F, p);
@@ -141,23 +145,26 @@ public class GameEngine extends View {
      * Physics / AI simulator thread
      */
     private class simThread implements Runnable {
-        private long lastTime = System.currentTimeMillis();
+        private long lastTime = System.nanoTime();
         @Override
         public void run() {
             while (true) {
                 try {
+                    Population population = GameEngine.this.population;
                     if (!inEditMode && !hasWon && population != null) {
-                        population.simulationTick(System.currentTimeMillis() - lastTime);
-                        lastTime = System.currentTimeMillis();
-                        Thread.sleep(20); // Sleep for 10MS (50fps physics)
+                        // Only whole milliseconds are handed over, the remainder is kept for next time
+                        long elapsed = (System.nanoTime() - lastTime) / 1000000;
+                        lastTime += elapsed * 1000000;
+                        population.advance(elapsed);
+                        Thread.sleep(population.config.physicsStepMillis); // Wake up about once per physics step
                         // Check if genetics has won!
-                        if (population.maxTravelled > 100 || population.batchNo > 10) {
+                        if (stopCondition.isMet(population)) {
                             hasWon = true;
                             return;
                         }
                     } else if (inEditMode) {
                         Thread.sleep(500);
-                        lastTime = System.currentTimeMillis();
+                        lastTime = System.nanoTime();
                     }
                 } catch (InterruptedException ignored) {
 
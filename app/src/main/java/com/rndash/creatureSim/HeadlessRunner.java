@@ -0,0 +1,98 @@
+package com.rndash.creatureSim;
+
+import com.rndash.creatureSim.Species.Population;
+
+/**
+ * Evolves a population without a display, in simulated time, as fast as the CPU allows
+ *
+ * The app steps its population in step with the clock, so it can be watched. Here physics steps
+ * run back to back with no sleeping, and no snapshots are taken for rendering, so a run that takes
+ * hours on screen takes minutes. Physics steps are fixed length (See EvolutionConfig), so the run
+ * is exactly the one the app would show for the same seed.
+ */
+public class HeadlessRunner {
+    private final Population population; // Population to evolve
+    private final StopCondition stop; // When the run is over
+    private volatile boolean cancelled = false; // Set to stop the run at the end of the current step
+
+    /**
+     * Result of a headless run
+     */
+    public static final class Result {
+        public final EvolutionConfig config; // Configuration of the population
+        public final boolean reachedTarget; // Did the population reach the target distance
+        public final int generations; // Generations run. Generations to the target if it was reached
+        public final double bestDistance; // Longest distance travelled (meters)
+        public final long steps; // Physics steps run
+        public final long simulatedMillis; // Simulated time run
+        public final long wallMillis; // Wall clock time taken
+
+        Result(EvolutionConfig config, boolean reachedTarget, int generations, double bestDistance,
+               long steps, long simulatedMillis, long wallMillis) {
+            this.config = config;
+            this.reachedTarget = reachedTarget;
+            this.generations = generations;
+            this.bestDistance = bestDistance;
+            this.steps = steps;
+            this.simulatedMillis = simulatedMillis;
+            this.wallMillis = wallMillis;
+        }
+
+        /**
+         * Returns how much faster than real time the run went
+         * @return Simulated seconds per wall clock second
+         */
+        public double speedup() {
+            return this.simulatedMillis / (double) Math.max(1, this.wallMillis);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s generations %d, best %.2f m, %.0f s simulated in %d ms (%.0fx real time)",
+                    this.reachedTarget ? "REACHED" : "MISSED", this.generations, this.bestDistance,
+                    this.simulatedMillis / 1000.0, this.wallMillis, this.speedup());
+        }
+    }
+
+    /**
+     * Creates a headless runner
+     * @param population Population to evolve
+     * @param stop When the run is over
+     */
+    public HeadlessRunner(Population population, StopCondition stop) {
+        this.population = population;
+        this.stop = stop;
+    }
+
+    /**
+     * Evolves the population until the stop condition is met, or cancel() is called
+     * Snapshots are not taken whilst running, and resume being taken after
+     * @return Result of the run
+     */
+    public Result run() {
+        Population p = this.population;
+        boolean publish = p.publishSnapshots;
+        p.publishSnapshots = false;
+        long startSimulated = p.getSimulatedMillis();
+        long steps = 0;
+        long start = System.nanoTime();
+        try {
+            while (!this.cancelled && !this.stop.isMet(p)) {
+                p.simulationTick();
+                steps++;
+            }
+        } finally {
+            p.publishSnapshots = publish;
+        }
+        long wallMillis = (System.nanoTime() - start) / 1000000;
+        return new Result(p.config, this.stop.reachedTarget(p), p.batchNo, p.maxTravelled,
+                steps, p.getSimulatedMillis() - startSimulated, wallMillis);
+    }
+
+    /**
+     * Stops the run at the end of the current physics step. Can be called from any thread
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+}
@@ -0,0 +1,166 @@
+package com.rndash.creatureSim.Species;
+
+import com.rndash.creatureSim.AI.Genome;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of compatibility distances between genomes, keyed on the genome hashes
+ *
+ * Champion clones, twins and species representatives keep the same genes across generations,
+ * so their distances come back again and again. The cache is split into segments, each a small
+ * least recently used map with its own lock, so the parallel speciation pass can share it
+ * without queueing on a single lock.
+ *
+ * A distance at or over the compatibility threshold may only be a lower bound of the real one, as
+ * Species.compatibility stops counting once the pair is known to be different species. That is
+ * all speciation needs, so the cache must only be shared by species with the same threshold.
+ */
+public class CompatibilityCache {
+    private static final int SEGMENTS = 16; // Number of independently locked segments
+
+    private final Segment[] segments; // Segments, picked by key hash
+    private final AtomicLong hits = new AtomicLong(); // Lookups that found a distance
+    private final AtomicLong misses = new AtomicLong(); // Lookups that had to compute one
+    public final int capacity; // Maximum number of distances held
+
+    /**
+     * Creates a cache
+     * @param capacity Maximum number of distances to hold. The least recently used are dropped after this
+     */
+    public CompatibilityCache(int capacity) {
+        this.capacity = capacity;
+        this.segments = new Segment[SEGMENTS];
+        int perSegment = Math.max(1, capacity / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            this.segments[i] = new Segment(perSegment);
+        }
+    }
+
+    /**
+     * Key of a (creature genome, representative genome) pair. The distance is not symmetric, so order matters
+     */
+    private static final class Key {
+        final long first;
+        final long second;
+
+        Key(long first, long second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) o;
+            return this.first == k.first && this.second == k.second;
+        }
+
+        @Override
+        public int hashCode() {
+            long h = this.first * 31 + this.second;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    /**
+     * Least recently used map of distances
+     */
+    private static final class Segment extends LinkedHashMap<Key, Double> {
+        private static final long serialVersionUID = 1L;
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Double> eldest) {
+            return this.size() > this.capacity;
+        }
+    }
+
+    private Segment segmentFor(Key k) {
+        return this.segments[(k.hashCode() >>> 8) & (SEGMENTS - 1)];
+    }
+
+    /**
+     * Looks up a distance
+     * @param g1 Genome being tested
+     * @param g2 Genome of the species representative
+     * @return The cached distance (Or a lower bound of it, if at or over the threshold), or null if it has not been computed
+     */
+    Double get(Genome g1, Genome g2) {
+        Key k = new Key(g1.hash, g2.hash);
+        Segment segment = this.segmentFor(k);
+        Double d;
+        synchronized (segment) {
+            d = segment.get(k);
+        }
+        if (d == null) {
+            this.misses.incrementAndGet();
+        } else {
+            this.hits.incrementAndGet();
+        }
+        return d;
+    }
+
+    /**
+     * Stores a distance
+     * @param g1 Genome being tested
+     * @param g2 Genome of the species representative
+     * @param distance Distance between them, or a lower bound of it that is at or over the threshold
+     */
+    void put(Genome g1, Genome g2, double distance) {
+        Key k = new Key(g1.hash, g2.hash);
+        Segment segment = this.segmentFor(k);
+        synchronized (segment) {
+            segment.put(k, distance);
+        }
+    }
+
+    /**
+     * Returns how many lookups found a cached distance
+     * @return Number of hits
+     */
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    /**
+     * Returns how many lookups had to compute the distance
+     * @return Number of misses
+     */
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    /**
+     * Returns the fraction of lookups that found a cached distance
+     * @return Hit rate from 0 to 1
+     */
+    public double getHitRate() {
+        long hits = this.hits.get();
+        long total = hits + this.misses.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Returns how many distances are held right now
+     * @return Number of cached distances
+     */
+    public int size() {
+        int size = 0;
+        for (Segment s : this.segments) {
+            synchronized (s) {
+                size += s.size();
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,219 @@
+package com.rndash.creatureSim.Species;
+
+import android.util.Log;
+import com.rndash.creatureSim.AI.Brain;
+import com.rndash.creatureSim.AI.HistoryCompaction;
+import com.rndash.creatureSim.AI.InnovationHistory;
+import com.rndash.creatureSim.AI.RandomSource;
+import com.rndash.creatureSim.CreatureBuilder;
+import com.rndash.creatureSim.EvolutionConfig;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Several independent populations (islands) evolving side by side, each on its own thread
+ *
+ * Every [migrationInterval] generations, each island sends copies of its best species champions
+ * to the islands picked by the topology. Migrants travel through lock free queues: an island sends
+ * at the end of its generation, and takes in whatever has arrived at the end of each generation
+ * after that. All islands register mutations in one shared InnovationHistory, so a migrant's
+ * innovation numbers mean the same thing on every island and it can be crossed over with the
+ * locals straight away.
+ *
+ * No island can know what the others still need from the shared history, so after sending their
+ * migrants the islands wait for each other. While they are all paused, the history is compacted
+ * against the living brains of every island and the migrants still on their way.
+ *
+ * Islands keep their own seed, but which mutation is registered first (and so gets the lower number)
+ * depends on how the threads are scheduled, as does when migrants arrive. So unlike a single
+ * Population, an island run is not replayed exactly by the same seed.
+ */
+public class IslandModel {
+    public final InnovationHistory history = new InnovationHistory(); // Mutation history shared by all islands
+    public final MigrationTopology topology; // Which islands send migrants to which
+    public final int migrationInterval; // Generations between migrations
+    public final int migrants; // Champions each island sends per migration
+    private final ArrayList<Population> islands = new ArrayList<>(); // Island populations
+    private final ArrayList<ConcurrentLinkedQueue<ArrayList<Brain>>> inboxes = new ArrayList<>(); // Migrants waiting for each island
+    private volatile boolean stopped = false; // Set to stop every island at the end of its current tick
+
+    /**
+     * Creates the islands
+     * @param model Blueprint for all creatures, in its spawn position (See CreatureBuilder.resetPos())
+     * @param config Parameters of the evolution on every island. [populationSize] is per island
+     * @param islands Number of islands. Usually the number of cores
+     * @param seed Seed the seed of each island is derived from
+     * @param topology Which islands send migrants to which
+     * @param migrationInterval Generations between migrations
+     * @param migrants Champions each island sends per migration
+     */
+    public IslandModel(CreatureBuilder model, EvolutionConfig config, int islands, long seed,
+                       MigrationTopology topology, int migrationInterval, int migrants) {
+        if (islands < 1) {
+            throw new IllegalArgumentException("Need at least 1 island");
+        }
+        if (migrationInterval < 1) {
+            throw new IllegalArgumentException("Migration interval must be at least 1 generation");
+        }
+        this.topology = topology;
+        this.migrationInterval = migrationInterval;
+        this.migrants = migrants;
+        RandomSource seeds = new RandomSource(seed);
+        for (int i = 0; i < islands; i++) {
+            Population p = new Population(model, config, seeds.stream(i).getSeed(), this.history);
+            p.runOnCallerThread(); // Every core already has an island
+            this.islands.add(p);
+            this.inboxes.add(new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    /**
+     * Returns the number of islands
+     * @return Number of islands
+     */
+    public int size() {
+        return this.islands.size();
+    }
+
+    /**
+     * Returns an island
+     * @param i Index of the island
+     * @return Island population
+     */
+    public Population getIsland(int i) {
+        return this.islands.get(i);
+    }
+
+    /**
+     * Returns the island whose creatures have travelled furthest
+     * Only accurate once run() has returned
+     * @return Best island
+     */
+    public Population best() {
+        Population best = this.islands.get(0);
+        for (Population p : this.islands) {
+            if (p.maxTravelled > best.maxTravelled) {
+                best = p;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Evolves every island on its own thread, blocking until they have all finished
+     * @param generations Generations each island runs for
+     * @param targetDistance Distance (meters) that stops every island once any creature reaches it.
+     *                       Larger than Creature.TARGET_DISTANCE to never stop early, as scores stop improving there
+     * @throws InterruptedException If interrupted whilst waiting for the islands. They are stopped first
+     */
+    public void run(int generations, double targetDistance) throws InterruptedException {
+        this.stopped = false;
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] workers = new Thread[this.islands.size()];
+        // Advances once every island still running has sent its migrants, run by the last to arrive
+        final Phaser migration = new Phaser(workers.length) {
+            @Override
+            protected boolean onAdvance(int phase, int registeredParties) {
+                if (registeredParties > 0) {
+                    compactHistory();
+                }
+                return false;
+            }
+        };
+        for (int i = 0; i < workers.length; i++) {
+            final int island = i;
+            workers[i] = new Thread(() -> {
+                try {
+                    this.evolve(island, generations, targetDistance, migration);
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                    this.stopped = true;
+                } finally {
+                    // Islands that are done no longer hold the others up
+                    migration.arriveAndDeregister();
+                }
+            }, "Island " + i);
+            workers[i].start();
+        }
+        try {
+            for (Thread t : workers) {
+                t.join();
+            }
+        } catch (InterruptedException e) {
+            this.stop();
+            throw e;
+        }
+        if (failure.get() != null) {
+            throw new RuntimeException("Island failed to evolve", failure.get());
+        }
+    }
+
+    /**
+     * Stops every island at the end of its current tick
+     */
+    public void stop() {
+        this.stopped = true;
+    }
+
+    /**
+     * Forgets the mutations the config's compaction policy no longer needs
+     * Must only be called while every island is paused
+     */
+    private void compactHistory() {
+        HistoryCompaction policy = this.islands.get(0).config.historyCompaction;
+        if (policy == HistoryCompaction.NONE) {
+            return;
+        }
+        ArrayList<Brain> living = new ArrayList<>();
+        for (Population p : this.islands) {
+            p.addLivingBrains(living);
+        }
+        for (ConcurrentLinkedQueue<ArrayList<Brain>> inbox : this.inboxes) {
+            for (ArrayList<Brain> arrivals : inbox) {
+                living.addAll(arrivals);
+            }
+        }
+        int forgotten = this.history.compact(policy, living);
+        if (forgotten > 0) {
+            Log.d("Islands", String.format("Forgot %d unused mutations", forgotten));
+        }
+    }
+
+    /**
+     * Evolves one island. Runs on the island's own thread
+     * @param island Index of the island
+     * @param generations Generations to run for
+     * @param targetDistance Distance that stops every island
+     * @param migration Where the islands wait for each other after sending migrants
+     */
+    private void evolve(int island, int generations, double targetDistance, Phaser migration) {
+        Population p = this.islands.get(island);
+        ConcurrentLinkedQueue<ArrayList<Brain>> inbox = this.inboxes.get(island);
+        int[] destinations = this.topology.destinations(island, this.islands.size());
+        while (!this.stopped && p.batchNo < generations) {
+            int batch = p.batchNo;
+            p.simulationTick();
+            if (p.maxTravelled >= targetDistance) {
+                this.stopped = true;
+            }
+            if (p.batchNo == batch) {
+                continue;
+            }
+            // A new generation was just bred and hasn't been simulated yet
+            if (p.batchNo % this.migrationInterval == 0) {
+                for (int d : destinations) {
+                    // Each destination gets its own copies, as brains are only ever used by one population
+                    this.inboxes.get(d).offer(p.emigrants(this.migrants));
+                }
+                migration.arriveAndAwaitAdvance();
+            }
+            ArrayList<Brain> arrivals;
+            while ((arrivals = inbox.poll()) != null) {
+                p.immigrate(arrivals);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.rndash.creatureSim.Species;
+
+/**
+ * Which islands send their migrants to which (See IslandModel)
+ */
+public enum MigrationTopology {
+    /**
+     * Each island sends to the next one along, and the last sends to the first. Good genomes spread slowly
+     */
+    RING {
+        @Override
+        public int[] destinations(int island, int islands) {
+            if (islands < 2) {
+                return new int[0];
+            }
+            return new int[] {(island + 1) % islands};
+        }
+    },
+    /**
+     * Each island sends to every other island. Good genomes spread in one migration
+     */
+    FULLY_CONNECTED {
+        @Override
+        public int[] destinations(int island, int islands) {
+            int[] destinations = new int[Math.max(0, islands - 1)];
+            for (int i = 0, d = 0; i < islands; i++) {
+                if (i != island) {
+                    destinations[d++] = i;
+                }
+            }
+            return destinations;
+        }
+    };
+
+    /**
+     * Returns the islands an island sends its migrants to
+     * @param island Index of the sending island
+     * @param islands Number of islands
+     * @return Indices of the receiving islands
+     */
+    public abstract int[] destinations(int island, int islands);
+}
@@ -0,0 +1,28 @@
+package com.rndash.creatureSim.Species;
+
+import com.rndash.creatureSim.AI.RandomSource;
+import com.rndash.creatureSim.Creature;
+
+import java.util.List;
+
+/**
+ * Strategy for picking the parents of a species' children
+ *
+ * prepare() is called once a generation, after the fitness of the species is final, and builds
+ * whatever structure the strategy needs. select() then only reads that structure, so it allocates
+ * nothing and can be called from several threads at once.
+ */
+public interface ParentSelection {
+    /**
+     * Builds the selection structure for a generation
+     * @param creatures Creatures of the species, with their final fitness
+     */
+    void prepare(List<Creature> creatures);
+
+    /**
+     * Picks a parent
+     * @param random Random number stream
+     * @return A creature from the list passed to prepare()
+     */
+    Creature select(RandomSource random);
+}
@@ -3,12 +3,28 @@ package com.rndash.creatureSim.Species;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.util.Log;
-import com.rndash.creatureSim.AI.NeuronConnectionHistory;
+import com.rndash.creatureSim.AI.Activation;
+import com.rndash.creatureSim.AI.Brain;
+import com.rndash.creatureSim.AI.BrainBatch;
+import com.rndash.creatureSim.AI.GenomeWriter;
+import com.rndash.creatureSim.AI.InnovationHistory;
+import com.rndash.creatureSim.AI.NetworkSnapshot;
+import com.rndash.creatureSim.AI.RandomSource;
+import com.rndash.creatureSim.AI.StagedInnovations;
+import com.rndash.creatureSim.BodyPool;
 import com.rndash.creatureSim.Creature;
 import com.rndash.creatureSim.CreatureBuilder;
+import com.rndash.creatureSim.CreatureParts.PhysicsWorld;
+import com.rndash.creatureSim.EvolutionConfig;
 
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 /**
  * Represents an entire population of species
@@ -19,102 +35,485 @@ public class Population {
     public double bestScore; // Best score in current run
     public double globalBestScore; // Best score out of all runs
     int generation; // Generation counter
-    public final ArrayList<NeuronConnectionHistory> history; // Mutation history for all species
+    public final InnovationHistory history; // Mutation history for all species
+    private final boolean ownsHistory; // False when [history] is shared with other populations, which may still be registering mutations in it
     final ArrayList<Species> species; // Species list
     public int batchNo; // Batch number (not generation!)
-    boolean isPopulating; // lock boolean indicating if we are re-populating the creatures list
     final CreatureBuilder model; // Model for all new creatures to use
     private double generationsSinceNew; // Generations since we had to reset the network entirely due to staleness
     public double maxTravelled; // Longest distance travelled
     Creature currentBest; // Current best creature
+    private int currentBestSlot = -1; // Index in [creatures] of [currentBest], or -1 once it is from a past generation
+    public final EvolutionConfig config; // Parameters of the evolution
+    final RandomSource random; // Random number stream for all evolution in this population
+    public boolean batchedInference = true; // Evaluate all brains in one pass rather than one creature at a time
+    public boolean parallelSpeciation = true; // Compare creatures against the species on all cores
+    public boolean parallelReproduction = true; // Breed the next generation on all cores
+    public boolean parallelPhysics = true; // Step the alive creatures on all cores
+    public boolean lockStepPhysics = true; // Step every body in the population's world together, rather than creature by creature
+    public boolean publishSnapshots = true; // Capture a snapshot for the render thread after every tick. Off when nothing is watching
+    public final CompatibilityCache compatibilityCache = new CompatibilityCache(4096); // Distances between unchanged genomes
+    private final BrainBatch batch; // Fused networks of all creatures, used for batched inference
+    private final BodyPool bodies; // Bodies of finished creatures, reused by the next generation
+    private Creature[] alive = new Creature[0]; // Creatures alive at the start of this tick, in population order. Dead ones are dropped each tick
+    private int[] aliveSlot = new int[0]; // Index in [creatures] of each alive creature
+    private int aliveCount = 0; // Number of entries used in [alive]
+    private int[] chunkBest = new int[0]; // Per chunk of [alive], the first creature with the highest score this tick
+    private int[] chunkCurrent = new int[0]; // Per chunk of [alive], the last creature beating [bestScore] this tick
+    private boolean[] aliveLane = new boolean[0]; // Per body of the population's world, does an alive creature have it
+    private int[] runStart = new int[0]; // First body of each run of alive bodies, for lock step physics
+    private int[] runEnd = new int[0]; // Body after the last of each run
+    private final SnapshotBuffer snapshots = new SnapshotBuffer(); // Snapshots handed from the simulation thread to the render thread
+    private long tick = 0; // Simulation ticks run so far
     public Population(CreatureBuilder cb, int size) {
+        this(cb, size, Activation.EXACT, System.nanoTime());
+    }
+
+    /**
+     * Creates a new population with the default parameters
+     * @param cb Blueprint for all creatures, in its spawn position (See CreatureBuilder.resetPos())
+     * @param size Number of creatures in the population
+     * @param activation Activation function for all brains. Approximations trade precision for speed on large runs
+     * @param seed Seed for all randomness in the population. The same seed replays the same run
+     */
+    public Population(CreatureBuilder cb, int size, Activation activation, long seed) {
+        this(cb, EvolutionConfig.DEFAULT.toBuilder().populationSize(size).activation(activation).build(), seed);
+    }
+
+    /**
+     * Creates a new population
+     * @param cb Blueprint for all creatures, in its spawn position (See CreatureBuilder.resetPos())
+     * @param config Parameters of the evolution
+     * @param seed Seed for all randomness in the population. The same seed replays the same run
+     */
+    public Population(CreatureBuilder cb, EvolutionConfig config, long seed) {
+        this(cb, config, seed, new InnovationHistory(), true);
+    }
+
+    /**
+     * Creates a new population that shares its mutation history with other populations
+     * Mutations registered by any of them get the same innovation numbers, so brains can move between them.
+     * The population never compacts a shared history, as it can't know what the others still need. Whoever shares it does (See IslandModel)
+     * @param cb Blueprint for all creatures, in its spawn position (See CreatureBuilder.resetPos())
+     * @param config Parameters of the evolution
+     * @param seed Seed for all randomness in the population
+     * @param history Mutation history to register mutations in
+     */
+    public Population(CreatureBuilder cb, EvolutionConfig config, long seed, InnovationHistory history) {
+        this(cb, config, seed, history, false);
+    }
+
+    private Population(CreatureBuilder cb, EvolutionConfig config, long seed, InnovationHistory history, boolean ownsHistory) {
         this.model = cb;
-        this.model.resetPos();
+        this.ownsHistory = ownsHistory;
+        this.config = config;
+        this.random = new RandomSource(seed);
         this.creatures = new ArrayList<>();
         this.bestCreature = null;
         this.bestScore = 0;
         this.globalBestScore = 0;
         this.generation = 1;
-        this.history = new ArrayList<>();
+        this.history = history;
         this.creatures = new ArrayList<>();
         this.species = new ArrayList<>();
-        this.isPopulating = false;
         this.batchNo = 0;
         this.generationsSinceNew = 0;
+        this.bodies = new BodyPool(cb);
         // Generate some new species
-        for (int i = 0; i < size; i++) {
-            this.creatures.add(new Creature(model));
-            this.creatures.get(this.creatures.size()-1).brain.fullyConnect(this.history);
+        for (int i = 0; i < config.populationSize; i++) {
+            this.creatures.add(new Creature(model, this.random, this.config, null));
+            this.bodies.acquire(this.creatures.get(this.creatures.size()-1));
+            this.creatures.get(this.creatures.size()-1).brain.fullyConnect(this.history, this.random);
             this.creatures.get(this.creatures.size()-1).brain.generateNetwork();
         }
+        Brain first = this.creatures.get(0).brain;
+        this.batch = new BrainBatch(first.inputs, first.outputs, this.config.activation);
+        this.compileBatch();
+        this.resetAlive();
+        this.publishSnapshot();
     }
 
     /**
-     * Renders all the creatures currently being simulated to the display
-     * @param c Canvas object
-     * @param p Paint object
+     * Captures the current state into a snapshot, and hands it to the render thread
      */
-    public void render(Canvas c, Paint p) {
-        // Currently touching the creatures list on another thread, don't render!
-        if (this.isPopulating) {return;}
-        for (Creature creature : creatures) {
-            if (!creature.isDead()) {
-                // only render alive creatures
-                creature.drawCreature(c, p);
+    private void publishSnapshot() {
+        this.snapshots.back().capture(this, this.tick);
+        this.snapshots.publish();
+    }
+
+    /**
+     * Copies the network of the current best creature, with the neuron values from its last AI tick
+     * @param into Snapshot to capture into. Cleared if there is no best creature yet
+     */
+    void captureChampion(NetworkSnapshot into) {
+        if (this.currentBest == null) {
+            into.clear();
+            return;
+        }
+        // Batched brains are evaluated in the batch, so their own activations are never filled
+        if (this.batchedInference && this.currentBestSlot != -1) {
+            into.capture(this.currentBest.brain, this.batch, this.currentBestSlot);
+        } else {
+            into.capture(this.currentBest.brain);
+        }
+    }
+
+    /**
+     * Runs every stage of a generation on the calling thread, rather than on all cores
+     * For callers that already run a population on each core, where fanning out again would only oversubscribe them
+     */
+    public void runOnCallerThread() {
+        this.parallelSpeciation = false;
+        this.parallelReproduction = false;
+        this.parallelPhysics = false;
+    }
+
+    /**
+     * Returns the newest snapshot published by the simulation
+     * Must only be called from one thread (The render thread), the returned snapshot is reused after the next call
+     * @return Newest snapshot
+     */
+    public PopulationSnapshot latestSnapshot() {
+        return this.snapshots.latest();
+    }
+
+    /**
+     * Fuses the networks of all current creatures for batched inference
+     * Creature i in the creatures list is brain i in the batch
+     */
+    private void compileBatch() {
+        ArrayList<Brain> brains = new ArrayList<>();
+        for (Creature c : this.creatures) {
+            brains.add(c.brain);
+        }
+        this.batch.compile(brains);
+    }
+
+    /**
+     * Writes the brain of every current creature to a channel in one pass
+     * Read them back with a GenomeReader
+     * @param channel Channel to write to. Left open
+     * @param doubleWeights True to write weights at full precision, false to write them as floats
+     * @throws IOException If the channel could not be written to
+     */
+    public void writeGenomes(WritableByteChannel channel, boolean doubleWeights) throws IOException {
+        GenomeWriter writer = new GenomeWriter(channel, doubleWeights);
+        for (Creature c : this.creatures) {
+            writer.write(c.brain);
+        }
+        writer.flush();
+    }
+
+    /**
+     * Copies the brains of the best species champions of the last generation, to send to another population
+     * Must be called from the thread running this population, between generations
+     * @param count Maximum number of brains to copy
+     * @return Copies of the best champion brains, best first. Safe to hand to another thread
+     */
+    ArrayList<Brain> emigrants(int count) {
+        ArrayList<Creature> champions = new ArrayList<>();
+        for (Species s : this.species) {
+            if (s.champion != null) {
+                champions.add(s.champion);
             }
         }
-        // Render the brain if its not null
-        if (this.currentBest != null) {
-            if (this.currentBest.brain != null) {
-                this.currentBest.brain.render(c, p, 700, 100, 0, 0);
+        champions.sort((a, b) -> Double.compare(b.fitness, a.fitness));
+        ArrayList<Brain> brains = new ArrayList<>();
+        for (int i = 0; i < Math.min(count, champions.size()); i++) {
+            // Cloned here, as cloning marks the original as shared
+            brains.add(champions.get(i).brain.clone());
+        }
+        return brains;
+    }
+
+    /**
+     * Swaps brains from another population in for the last bred children of the new generation
+     * The champion clones at the front of the generation are never replaced
+     * Must be called from the thread running this population, between generations
+     * @param brains Brains to take in. Must use the same mutation history as this population
+     * @return Number of brains taken in
+     */
+    int immigrate(ArrayList<Brain> brains) {
+        int replaceable = this.creatures.size() - Math.max(1, this.species.size());
+        int count = Math.min(brains.size(), replaceable);
+        for (int i = 0; i < count; i++) {
+            Creature c = new Creature(this.model, this.random, this.config, brains.get(i));
+            c.brain.generateNetwork();
+            this.bodies.acquire(c);
+            this.bodies.release(this.creatures.set(this.creatures.size() - 1 - i, c));
+        }
+        if (count > 0) {
+            this.compileBatch();
+            this.resetAlive();
+        }
+        return count;
+    }
+
+    /**
+     * Runs the AI on every alive creature in one pass.
+     * Gathers all their vision into the batch input matrix, evaluates every
+     * network, then hands each creature back its row of the output matrix
+     * Row i of the matrices belongs to alive creature i, so gathering and scattering are done a chunk per task
+     */
+    private void batchAITick() {
+        int alive = this.aliveCount;
+        this.batch.ensureRows(alive);
+        this.forEachChunk(alive, k -> {
+            for (int i = chunkStart(k); i < chunkEnd(k, alive); i++) {
+                this.alive[i].writeVision(this.batch.in, i * this.batch.inputs);
+                this.batch.setRow(i, this.aliveSlot[i]);
+            }
+        });
+        this.batch.evaluate(alive);
+        this.forEachChunk(alive, k -> {
+            for (int i = chunkStart(k); i < chunkEnd(k, alive); i++) {
+                this.alive[i].applyDecision(this.batch.out, i * this.batch.outputs);
+            }
+        });
+    }
+
+    /**
+     * Starts the alive set over from every creature, after the creatures list has changed
+     */
+    private void resetAlive() {
+        int size = this.creatures.size();
+        if (this.alive.length < size) {
+            this.alive = new Creature[size];
+            this.aliveSlot = new int[size];
+        }
+        this.aliveCount = 0;
+        for (int i = 0; i < size; i++) {
+            Creature c = this.creatures.get(i);
+            if (!c.isDead()) {
+                this.alive[this.aliveCount] = c;
+                this.aliveSlot[this.aliveCount] = i;
+                this.aliveCount++;
+            }
+        }
+        Arrays.fill(this.alive, this.aliveCount, this.alive.length, null);
+        int chunks = (size + PHYSICS_CHUNK - 1) / PHYSICS_CHUNK;
+        if (this.chunkBest.length < chunks) {
+            this.chunkBest = new int[chunks];
+            this.chunkCurrent = new int[chunks];
+        }
+    }
+
+    /**
+     * Drops the creatures that died last tick from the alive set, keeping the rest in order
+     * Costs one pass over the creatures that were alive, so the dead cost nothing once dropped
+     */
+    private void compactAlive() {
+        int n = 0;
+        for (int i = 0; i < this.aliveCount; i++) {
+            if (!this.alive[i].isDead()) {
+                this.alive[n] = this.alive[i];
+                this.aliveSlot[n] = this.aliveSlot[i];
+                n++;
             }
         }
+        Arrays.fill(this.alive, n, this.aliveCount, null);
+        this.aliveCount = n;
+    }
+
+    private static int chunkStart(int chunk) {
+        return chunk * PHYSICS_CHUNK;
+    }
+
+    private static int chunkEnd(int chunk, int count) {
+        return Math.min(count, (chunk + 1) * PHYSICS_CHUNK);
     }
 
+    /**
+     * Runs a task for every chunk of a run of items (Alive creatures, or bodies). Chunks are run on all
+     * cores if [parallelPhysics] is set, and there is more than one, through the common work stealing pool
+     * Tasks must only touch the items in their own chunk
+     * @param count Number of items
+     * @param task Task taking the chunk number
+     */
+    private void forEachChunk(int count, IntConsumer task) {
+        int chunks = (count + PHYSICS_CHUNK - 1) / PHYSICS_CHUNK;
+        if (this.parallelPhysics && chunks > 1) {
+            IntStream.range(0, chunks).parallel().forEach(task);
+        } else {
+            for (int k = 0; k < chunks; k++) {
+                task.accept(k);
+            }
+        }
+    }
+
+    /**
+     * Splits the bodies of the alive creatures into runs of neighbouring lanes of the world, each at most
+     * PHYSICS_CHUNK long. Bodies of dead creatures are left out, so they cost nothing to step
+     * @param world The population's world
+     * @return Number of runs, in [runStart] and [runEnd]
+     */
+    private int findRuns(PhysicsWorld world) {
+        int lanes = world.size();
+        if (this.aliveLane.length < lanes) {
+            this.aliveLane = new boolean[lanes];
+            this.runStart = new int[lanes];
+            this.runEnd = new int[lanes];
+        }
+        Arrays.fill(this.aliveLane, 0, lanes, false);
+        for (int i = 0; i < this.aliveCount; i++) {
+            this.aliveLane[this.alive[i].getBody()] = true;
+        }
+        int runs = 0;
+        int b = 0;
+        while (b < lanes) {
+            if (!this.aliveLane[b]) {
+                b++;
+                continue;
+            }
+            int start = b;
+            while (b < lanes && this.aliveLane[b] && b - start < PHYSICS_CHUNK) {
+                b++;
+            }
+            this.runStart[runs] = start;
+            this.runEnd[runs] = b;
+            runs++;
+        }
+        return runs;
+    }
+
+    /**
+     * Finds the best creatures of one chunk of the alive set, for the reduction in simulationTick()
+     * @param chunk Chunk number
+     */
+    private void reduceChunk(int chunk) {
+        int best = -1;
+        int current = -1;
+        for (int i = chunkStart(chunk); i < chunkEnd(chunk, this.aliveCount); i++) {
+            double score = this.alive[i].score;
+            if (best < 0 || score > this.alive[best].score) {
+                best = i;
+            }
+            if (score > this.bestScore) {
+                current = i;
+            }
+        }
+        this.chunkBest[chunk] = best;
+        this.chunkCurrent[chunk] = current;
+    }
+
+    /**
+     * Renders all the creatures currently being simulated to the display, from the newest snapshot
+     * Must only be called from the render thread
+     * @param c Canvas object
+     * @param p Paint object
+     */
+    public void render(Canvas c, Paint p) {
+        this.latestSnapshot().render(c, p);
+    }
+
+    private static final int PHYSICS_CHUNK = 32; // Alive creatures stepped per task
+    private static final long MAX_FRAME_MILLIS = 250; // Most real time advance() catches up on at once, so a stall can't snowball
+
     // Used to control when AI is triggered
-    private long lastAITime = 0;
+    private long aiAccumulator = 0; // Simulated time since the last AI tick
+    private long frameAccumulator = 0; // Real time handed to advance() not yet simulated
+    /**
+     * Advances the simulation by real elapsed time, in fixed physics steps
+     * Time left over that doesn't make up a whole step is kept for the next call, so the
+     * simulation keeps pace with the clock, but every step is the same length regardless of jitter
+     * @param elapsedMillis Milliseconds elapsed since the last call
+     * @return Number of physics steps run
+     */
+    public int advance(long elapsedMillis) {
+        this.frameAccumulator += Math.min(elapsedMillis, MAX_FRAME_MILLIS);
+        int steps = 0;
+        while (this.frameAccumulator >= this.config.physicsStepMillis) {
+            this.frameAccumulator -= this.config.physicsStepMillis;
+            this.simulationTick();
+            steps++;
+        }
+        return steps;
+    }
+
     /**
-     * Run a simulation tick on all currently simulated species
-     * @param millis Number of milliseconds elapsed since we last did a simulation tick
+     * Runs one fixed physics step on all currently simulated species, and an AI tick if one is due
+     * Doesn't depend on the clock, so the same seed always replays the same run
      */
-    public void simulationTick(long millis) {
-        // Limit the AI to do 10 times per second, if not the creatures
-        // Look like a jittery mess!
-        lastAITime+= millis;
-        boolean doAITick = this.lastAITime >= 100;
+    public void simulationTick() {
+        long millis = this.config.physicsStepMillis;
+        this.aiAccumulator += millis;
+        boolean doAITick = this.aiAccumulator >= this.config.aiStepMillis;
         if (doAITick) {
-            this.lastAITime -= 100;
+            this.aiAccumulator -= this.config.aiStepMillis;
         }
-        // Currently touching the creatures list on another thread, don't simulate!
-        if (this.isPopulating) {return;}
-        int alive = 0;
-        for (Creature c : creatures) {
-            // Only simulate alive creatures
-            if (!c.isDead()) {
-                alive++;
-                c.simulationStep(millis);
-                if (doAITick) {c.aiTick(); };
-                if (c.score > this.globalBestScore) {
-                    this.globalBestScore = c.score;
-                    this.maxTravelled = c.avgDistance;
-                    this.bestCreature = c;
+        // Only simulate alive creatures
+        this.compactAlive();
+        int alive = this.aliveCount;
+        boolean aiPerCreature = doAITick && !this.batchedInference;
+        if (this.lockStepPhysics && this.bodies.strays() == 0) {
+            // Every body shares the blueprint's body plan, so the world is stepped as one matrix,
+            // a run of alive bodies at a time
+            PhysicsWorld world = this.bodies.getWorld();
+            int runs = this.findRuns(world);
+            this.forEachChunk(runs, k -> {
+                for (int r = chunkStart(k); r < chunkEnd(k, runs); r++) {
+                    world.stepRange(this.runStart[r], this.runEnd[r], millis);
                 }
-                if  (c.score > this.bestScore) {
-                    this.currentBest = c;
+            });
+            if (aiPerCreature) {
+                this.forEachChunk(alive, k -> {
+                    for (int i = chunkStart(k); i < chunkEnd(k, alive); i++) {
+                        this.alive[i].aiTick();
+                    }
+                });
+            }
+        } else {
+            // Creatures never interact, so each chunk is stepped on its own
+            this.forEachChunk(alive, k -> {
+                for (int i = chunkStart(k); i < chunkEnd(k, alive); i++) {
+                    Creature c = this.alive[i];
+                    c.simulationStep(millis);
+                    if (aiPerCreature) {
+                        c.aiTick();
+                    }
                 }
+            });
+        }
+        if (doAITick && this.batchedInference) {
+            this.batchAITick();
+        }
+        // Each chunk finds its own best, then they are combined in chunk order,
+        // so the result is the same as one pass in population order, however the chunks were scheduled
+        this.forEachChunk(alive, this::reduceChunk);
+        int chunks = (alive + PHYSICS_CHUNK - 1) / PHYSICS_CHUNK;
+        for (int k = 0; k < chunks; k++) {
+            if (this.chunkBest[k] >= 0 && this.alive[this.chunkBest[k]].score > this.globalBestScore) {
+                Creature c = this.alive[this.chunkBest[k]];
+                this.globalBestScore = c.score;
+                this.maxTravelled = c.avgDistance;
+                this.bestCreature = c;
+            }
+            if (this.chunkCurrent[k] >= 0) {
+                this.currentBest = this.alive[this.chunkCurrent[k]];
+                this.currentBestSlot = this.aliveSlot[this.chunkCurrent[k]];
             }
         }
         // No more left alive, time to re-generate the species
         if (alive == 0) {
-            // Halt rendering whilst we modify everything
-            this.isPopulating = true;
             creatures.forEach(Creature::kill);
             this.batchNo++;
             this.naturalSelection();
-            this.isPopulating = false;
+        }
+        this.tick++;
+        // The render thread only ever sees complete ticks, never a half built generation
+        if (this.publishSnapshots) {
+            this.publishSnapshot();
         }
     }
 
+    /**
+     * Returns the simulated time run so far
+     * @return Simulated time (ms)
+     */
+    public long getSimulatedMillis() {
+        return this.tick * this.config.physicsStepMillis;
+    }
+
     /**
      * Sets the best player out of all species
      */
@@ -138,7 +537,6 @@ public class Population {
      */
     public void naturalSelection() {
         Creature previousBest = this.creatures.get(0); // get our previous champion
-        creatures.forEach(Creature::reset); // Reset the position models for all creatures
         this.speciate(); // Now speciate current species
         this.calculateFitness(); // Calculate fitness for all species
         this.sortSpecies(); // Sort the species based on fitness
@@ -151,63 +549,186 @@ public class Population {
         if (this.generationsSinceNew >= 0 || this.bestScore > 100) {
             this.generationsSinceNew = 0;
         }
-        Log.d("Natural selection", String.format("Generation %d, Number of mutations: %d", this.generation, this.history.size()));
+        Log.d("Natural selection", String.format("Generation %d, Number of mutations: %d (%d remembered)",
+                this.generation, this.history.innovationCount(), this.history.size()));
+        Log.d("Natural selection", String.format("Compatibility cache hit rate %.1f%% (%d hits, %d misses)",
+                this.compatibilityCache.getHitRate() * 100, this.compatibilityCache.getHits(), this.compatibilityCache.getMisses()));
         // Get an average fitness for reproduction
         double averageSum = this.getAvgFitnessSum();
         ArrayList<Creature> children = new ArrayList<>();
+        // Species each child slot is to be bred from. Null for slots that are already filled
+        ArrayList<Species> parents = new ArrayList<>();
         // Do this in all remaining species
         for (Species value : this.species) {
             children.add(value.champion.clone()); // Clone the champion as a child
+            parents.add(null);
             // Calculate how many more children should be added
             int NoOfChildren = (int) Math.floor(value.averageFitness / averageSum * this.creatures.size()) - 1;
             // Now make more children for the current species
             for (int i = 0; i < Math.abs(NoOfChildren); i++) {
-                children.add(value.makeChild(this.history));
+                children.add(null);
+                parents.add(value);
             }
         }
         // Check now that we have correct number of children. If not, add the previous best champion
         if (children.size() < this.creatures.size()) {
             children.add(previousBest.clone());
+            parents.add(null);
         }
         // Still need to add more children! Just make children based on the best species
         if (this.species.size() > 0) {
             while (children.size() < this.creatures.size()) {
-                children.add(this.species.get(0).makeChild(history));
+                children.add(null);
+                parents.add(this.species.get(0));
             }
+            this.breed(children, parents);
         } else {
             // No more good species, re-populate
             while (children.size() < this.creatures.size()) {
-                Creature c = new Creature(model);
-                c.brain.fullyConnect(this.history);
+                Creature c = new Creature(model, this.random, this.config, null);
+                c.brain.fullyConnect(this.history, this.random);
                 children.add(c);
             }
         }
+        // The last generation is finished with, so its bodies are put back at rest for the new one
+        for (Creature c : this.creatures) {
+            this.bodies.release(c);
+        }
+        for (Creature c : children) {
+            this.bodies.acquire(c);
+        }
         this.creatures = children;
+        this.currentBestSlot = -1; // The batch is about to be compiled from the children
         this.generation++;
         this.generationsSinceNew++;
-        for (Creature creature : this.creatures) { //generate networks for each of the children
-            creature.brain.generateNetwork();
+        IntStream networks = IntStream.range(0, this.creatures.size());
+        if (this.parallelReproduction) {
+            networks = networks.parallel();
+        }
+        networks.forEach(i -> this.creatures.get(i).brain.generateNetwork()); //generate networks for each of the children
+        this.compileBatch();
+        this.resetAlive();
+        if (this.ownsHistory) {
+            this.compactHistory();
+        }
+    }
+
+    /**
+     * Forgets the mutations the config's compaction policy no longer needs
+     */
+    private void compactHistory() {
+        ArrayList<Brain> living = new ArrayList<>();
+        this.addLivingBrains(living);
+        int forgotten = this.history.compact(this.config.historyCompaction, living);
+        if (forgotten > 0) {
+            Log.d("Natural selection", String.format("Forgot %d unused mutations", forgotten));
+        }
+    }
+
+    /**
+     * Adds every brain the population can still breed from or compare against: the current generation,
+     * and the champions and representatives of the species
+     * @param living Collection to add the brains to
+     */
+    void addLivingBrains(Collection<Brain> living) {
+        for (Creature c : this.creatures) {
+            living.add(c.brain);
+        }
+        for (Species s : this.species) {
+            if (s.representative != null) {
+                living.add(s.representative);
+            }
+            if (s.champion != null) {
+                living.add(s.champion.brain);
+            }
+        }
+    }
+
+    /**
+     * Fills the empty child slots with children bred from their species
+     *
+     * Each child is bred as an independent task (On all cores if [parallelReproduction] is set),
+     * with a random stream picked by generation and slot number, and its new mutations staged
+     * rather than written to the history. The staged mutations are then committed in slot order,
+     * so the results are the same for a given seed however the tasks were scheduled.
+     * @param children Child slots. Null slots are filled in
+     * @param parents Species to breed each null slot from
+     */
+    private void breed(ArrayList<Creature> children, ArrayList<Species> parents) {
+        // Children share genes with their parents, so mark every parent up front rather than from the tasks
+        for (Species s : this.species) {
+            for (Creature c : s.creatures) {
+                c.brain.markShared();
+            }
+        }
+        final StagedInnovations[] staged = new StagedInnovations[children.size()];
+        IntStream slots = IntStream.range(0, children.size()).filter(i -> parents.get(i) != null);
+        if (this.parallelReproduction) {
+            slots = slots.parallel();
+        }
+        slots.forEach(i -> {
+            staged[i] = this.history.stage();
+            RandomSource random = this.random.stream(((long) this.generation << 32) | i);
+            children.set(i, parents.get(i).makeChild(staged[i], random));
+        });
+        for (int i = 0; i < staged.length; i++) {
+            if (staged[i] != null) {
+                staged[i].commit(children.get(i).brain);
+            }
         }
     }
 
     /**
      * Generates some new species if they don't already exist
+     *
+     * Works in 2 passes. First every creature is compared against the species that already
+     * exist, finding the first that matches (In parallel if [parallelSpeciation] is set, as each
+     * creature is independent). Then, in creature order, each creature joins that species, or
+     * failing that the first matching species made during this pass, or starts a new one.
+     * This gives exactly the same species as comparing one creature at a time.
      */
     void speciate() {
         species.forEach(s -> s.creatures.clear());
+        // Build every genome up front, so the parallel pass only ever reads them
         for (Creature creature : this.creatures) {
-            boolean found = false;
-            for (Species s : this.species) {
-                if (s.sameSpecies(creature.brain)) {
-                    s.addToSpecies(creature);
-                    found = true;
-                    break;
-                }
+            creature.brain.genome();
+        }
+        for (Species s : this.species) {
+            s.representative.genome();
+        }
+        final int existing = this.species.size();
+        final int[] match = new int[this.creatures.size()];
+        IntStream indices = IntStream.range(0, match.length);
+        if (this.parallelSpeciation) {
+            indices = indices.parallel();
+        }
+        indices.forEach(i -> match[i] = this.firstMatchingSpecies(this.creatures.get(i).brain, 0, existing));
+
+        for (int i = 0; i < match.length; i++) {
+            Creature creature = this.creatures.get(i);
+            int s = match[i] != -1 ? match[i] : this.firstMatchingSpecies(creature.brain, existing, this.species.size());
+            if (s != -1) {
+                this.species.get(s).addToSpecies(creature);
+            } else {
+                this.species.add(new Species(creature, this.config));
             }
-            if (!found) {
-                this.species.add(new Species(creature));
+        }
+    }
+
+    /**
+     * Finds the first species in a range of the species list that a brain belongs to
+     * @param brain Brain to find the species of
+     * @param from First species index to check
+     * @param to Species index to stop at (Exclusive)
+     * @return Index of the species, or -1 if none of them match
+     */
+    private int firstMatchingSpecies(Brain brain, int from, int to) {
+        for (int s = from; s < to; s++) {
+            if (this.species.get(s).sameSpecies(brain, this.compatibilityCache)) {
+                return s;
             }
         }
+        return -1;
     }
 
     /**
@@ -234,7 +755,7 @@ public class Population {
      * Kill any species that have gone stale
      */
     void killStaleSpecies() {
-        species.removeIf(s -> (s.staleness >= 15));
+        species.removeIf(s -> (s.staleness >= this.config.speciesStalenessLimit));
     }
 
     /**
@@ -263,6 +784,7 @@ public class Population {
             s.cull();
             s.fitnessSharing();
             s.setAverage();
+            s.prepareSelection();
         });
     }
 }
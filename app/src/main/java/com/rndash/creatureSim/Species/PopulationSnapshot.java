@@ -0,0 +1,183 @@
+package com.rndash.creatureSim.Species;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import com.rndash.creatureSim.AI.NetworkSnapshot;
+import com.rndash.creatureSim.Creature;
+import com.rndash.creatureSim.CreatureParts.Joint;
+import com.rndash.creatureSim.CreatureParts.Node;
+import com.rndash.creatureSim.GameEngine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Everything needed to draw one tick of a population, captured by the simulation thread
+ *
+ * Node positions and joints of all alive creatures are held in flat primitive arrays, so
+ * drawing a snapshot never touches the creatures the simulation is busy updating.
+ * Snapshots are handed between threads by a SnapshotBuffer and their arrays are reused,
+ * so treat every field as read only, and only until the next call to Population.latestSnapshot()
+ */
+public final class PopulationSnapshot {
+    public long tick; // Simulation tick the snapshot was taken on
+    public long capturedNanos; // System.nanoTime() when the snapshot was taken
+    public long stepMillis; // Simulated time of the physics step that led to the snapshot
+    public int batchNo; // Batch number (not generation!)
+    public int generation; // Generation counter
+    public double maxTravelled; // Longest distance travelled
+    public int mutations; // Number of unique mutations seen
+    public int alive; // Number of creatures alive, and in the snapshot
+    public final NetworkSnapshot champion = new NetworkSnapshot(); // Network of the current best creature. Empty if there is none
+
+    public int nodes; // Number of nodes across all creatures
+    public float[] nodeX = new float[0]; // Simulation X position of each node (meters)
+    public float[] nodeY = new float[0]; // Simulation Y position of each node (meters)
+    public float[] previousX = new float[0]; // X position of each node one physics step earlier (meters)
+    public float[] previousY = new float[0]; // Y position of each node one physics step earlier (meters)
+    public float[] nodeRadius = new float[0]; // Radius of each node (meters)
+    public int[] nodeColor = new int[0]; // Colour of each node (ARGB)
+
+    public int joints; // Number of joints across all creatures
+    public int[] jointParent = new int[0]; // Index of the parent node of each joint
+    public int[] jointChild = new int[0]; // Index of the child node of each joint
+    public float[] jointWidth = new float[0]; // Stroke width of each joint
+    public int[] jointColor = new int[0]; // Colour of each joint (ARGB)
+
+    /**
+     * Captures the current state of a population into this snapshot, reusing its arrays
+     * @param p Population to capture
+     * @param tick Simulation tick number
+     */
+    void capture(Population p, long tick) {
+        this.tick = tick;
+        this.capturedNanos = System.nanoTime();
+        this.stepMillis = p.config.physicsStepMillis;
+        this.batchNo = p.batchNo;
+        this.generation = p.generation;
+        this.maxTravelled = p.maxTravelled;
+        this.mutations = p.history.innovationCount();
+        p.captureChampion(this.champion);
+
+        ArrayList<Creature> creatures = p.creatures;
+        int totalNodes = 0;
+        int totalJoints = 0;
+        int alive = 0;
+        for (Creature c : creatures) {
+            if (!c.isDead()) {
+                totalNodes += c.nodes.size();
+                totalJoints += c.joints.size();
+                alive++;
+            }
+        }
+        this.alive = alive;
+        this.ensureCapacity(totalNodes, totalJoints);
+
+        int n = 0;
+        int j = 0;
+        for (Creature c : creatures) {
+            if (c.isDead()) {
+                continue;
+            }
+            int firstNode = n;
+            for (Node node : c.nodes) {
+                this.nodeX[n] = (float) node.getX();
+                this.nodeY[n] = (float) node.getY();
+                this.previousX[n] = (float) node.getPreviousX();
+                this.previousY[n] = (float) node.getPreviousY();
+                this.nodeRadius[n] = node.getRadius();
+                this.nodeColor[n] = node.getRenderColor();
+                n++;
+            }
+            for (Joint joint : c.joints) {
+                this.jointParent[j] = firstNode + joint.getParentIndex();
+                this.jointChild[j] = firstNode + joint.getChildIndex();
+                this.jointWidth[j] = joint.getRenderWidth();
+                this.jointColor[j] = joint.getRenderColor();
+                j++;
+            }
+        }
+        this.nodes = n;
+        this.joints = j;
+    }
+
+    private void ensureCapacity(int nodes, int joints) {
+        if (this.nodeX.length < nodes) {
+            int size = Math.max(nodes, this.nodeX.length * 2);
+            this.nodeX = Arrays.copyOf(this.nodeX, size);
+            this.nodeY = Arrays.copyOf(this.nodeY, size);
+            this.previousX = Arrays.copyOf(this.previousX, size);
+            this.previousY = Arrays.copyOf(this.previousY, size);
+            this.nodeRadius = Arrays.copyOf(this.nodeRadius, size);
+            this.nodeColor = Arrays.copyOf(this.nodeColor, size);
+        }
+        if (this.jointParent.length < joints) {
+            int size = Math.max(joints, this.jointParent.length * 2);
+            this.jointParent = Arrays.copyOf(this.jointParent, size);
+            this.jointChild = Arrays.copyOf(this.jointChild, size);
+            this.jointWidth = Arrays.copyOf(this.jointWidth, size);
+            this.jointColor = Arrays.copyOf(this.jointColor, size);
+        }
+    }
+
+    private static float screenX(float simX) {
+        return (float) ((simX * GameEngine.PIXELS_PER_M) + (GameEngine.CAMERA_POS_SIM_X * GameEngine.PIXELS_PER_M));
+    }
+
+    private static float screenY(float simY) {
+        return GameEngine.max_screen_height - (simY * GameEngine.PIXELS_PER_M);
+    }
+
+    /**
+     * Returns how far to draw the creatures between their previous and current positions
+     * The simulation publishes a snapshot every physics step, so drawing it one step behind,
+     * and moving towards the newest positions as real time passes, hides the steps from view
+     * @param nowNanos Current System.nanoTime()
+     * @return Interpolation factor, from 0 (previous positions) to 1 (current positions)
+     */
+    public float interpolation(long nowNanos) {
+        float alpha = (nowNanos - this.capturedNanos) / (this.stepMillis * 1000000F);
+        return Math.max(0, Math.min(1, alpha));
+    }
+
+    private float lerp(float from, float to, float alpha) {
+        return from + (to - from) * alpha;
+    }
+
+    /**
+     * Draws the creatures in this snapshot at their current positions, and the champion's network
+     * @param c Canvas object
+     * @param p Paint object
+     */
+    public void render(Canvas c, Paint p) {
+        this.render(c, p, 1);
+    }
+
+    /**
+     * Draws the creatures in this snapshot, and the champion's network
+     * @param c Canvas object
+     * @param p Paint object
+     * @param alpha Interpolation factor between the previous (0) and current (1) positions. See interpolation(long)
+     */
+    public void render(Canvas c, Paint p, float alpha) {
+        for (int j = 0; j < this.joints; j++) {
+            int parent = this.jointParent[j];
+            int child = this.jointChild[j];
+            p.setColor(this.jointColor[j]);
+            p.setStrokeWidth(this.jointWidth[j]);
+            c.drawLine(
+                    screenX(lerp(this.previousX[parent], this.nodeX[parent], alpha)),
+                    screenY(lerp(this.previousY[parent], this.nodeY[parent], alpha)),
+                    screenX(lerp(this.previousX[child], this.nodeX[child], alpha)),
+                    screenY(lerp(this.previousY[child], this.nodeY[child], alpha)), p);
+        }
+        for (int n = 0; n < this.nodes; n++) {
+            p.setColor(this.nodeColor[n]);
+            c.drawCircle(
+                    screenX(lerp(this.previousX[n], this.nodeX[n], alpha)),
+                    screenY(lerp(this.previousY[n], this.nodeY[n], alpha)),
+                    this.nodeRadius[n] * GameEngine.PIXELS_PER_M, p);
+        }
+        this.champion.render(c, p, 700, 100, 0, 0);
+    }
+}
@@ -0,0 +1,44 @@
+package com.rndash.creatureSim.Species;
+
+import com.rndash.creatureSim.AI.RandomSource;
+import com.rndash.creatureSim.Creature;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Linear rank selection
+ * The fittest of n creatures has weight n, the next n-1, down to 1 for the least fit.
+ * Creatures are kept in rank order, so a pick is a binary search over the running sum of weights
+ */
+public class RankSelection implements ParentSelection {
+    private final ArrayList<Creature> ranked = new ArrayList<>(); // Creatures, fittest first
+
+    @Override
+    public void prepare(List<Creature> creatures) {
+        this.ranked.clear();
+        this.ranked.addAll(creatures);
+        this.ranked.sort((a, b) -> Double.compare(b.fitness, a.fitness));
+    }
+
+    @Override
+    public Creature select(RandomSource random) {
+        long n = this.ranked.size();
+        if (n == 0) {
+            return null;
+        }
+        // Running sum of weights up to rank r (0 based) is r+1 terms of n, n-1, ..., so (r+1)(2n-r)/2
+        long target = (long) (random.nextDouble() * (n * (n + 1) / 2));
+        int lo = 0;
+        int hi = (int) n - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if ((mid + 1) * (2 * n - mid) / 2 > target) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return this.ranked.get(lo);
+    }
+}
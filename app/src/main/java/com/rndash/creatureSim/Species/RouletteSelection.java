@@ -0,0 +1,51 @@
+package com.rndash.creatureSim.Species;
+
+import com.rndash.creatureSim.AI.RandomSource;
+import com.rndash.creatureSim.Creature;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fitness proportionate selection
+ * Keeps the running sum of fitness over the creatures, so a pick is a binary search rather than a scan
+ */
+public class RouletteSelection implements ParentSelection {
+    private final ArrayList<Creature> creatures = new ArrayList<>(); // Creatures to pick from
+    private double[] runningSum = new double[0]; // Sum of fitness up to and including each creature
+
+    @Override
+    public void prepare(List<Creature> creatures) {
+        this.creatures.clear();
+        this.creatures.addAll(creatures);
+        if (this.runningSum.length < creatures.size()) {
+            this.runningSum = new double[creatures.size()];
+        }
+        double sum = 0;
+        for (int i = 0; i < creatures.size(); i++) {
+            sum += creatures.get(i).fitness;
+            this.runningSum[i] = sum;
+        }
+    }
+
+    @Override
+    public Creature select(RandomSource random) {
+        int size = this.creatures.size();
+        if (size == 0) {
+            return null;
+        }
+        double target = random.nextDouble() * this.runningSum[size - 1];
+        // First creature whose running sum goes past the target
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (this.runningSum[mid] > target) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return this.creatures.get(lo < size ? lo : 0);
+    }
+}
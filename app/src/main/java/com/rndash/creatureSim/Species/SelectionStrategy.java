@@ -0,0 +1,40 @@
+package com.rndash.creatureSim.Species;
+
+/**
+ * Parent selection strategies a population can breed with
+ */
+public enum SelectionStrategy {
+    /**
+     * Chance of being picked is proportional to fitness
+     */
+    ROULETTE {
+        @Override
+        public ParentSelection create() {
+            return new RouletteSelection();
+        }
+    },
+    /**
+     * Fittest of a few creatures picked at random
+     */
+    TOURNAMENT {
+        @Override
+        public ParentSelection create() {
+            return new TournamentSelection(3);
+        }
+    },
+    /**
+     * Chance of being picked is proportional to rank, so a single very fit creature can't crowd out the rest
+     */
+    RANK {
+        @Override
+        public ParentSelection create() {
+            return new RankSelection();
+        }
+    };
+
+    /**
+     * Creates a selection for one species
+     * @return New selection
+     */
+    public abstract ParentSelection create();
+}
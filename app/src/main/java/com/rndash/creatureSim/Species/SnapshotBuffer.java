@@ -0,0 +1,47 @@
+package com.rndash.creatureSim.Species;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock free triple buffer of snapshots, between the simulation thread and one reading thread
+ *
+ * The simulation always has a back snapshot to capture into, and the reader always has a front
+ * snapshot to draw from. The third sits in the middle. Publishing swaps the back and middle
+ * snapshots, and reading swaps the front and middle ones if the middle holds something newer.
+ * Neither side ever waits for the other, and the reader only ever sees complete snapshots.
+ */
+final class SnapshotBuffer {
+    private static final int INDEX = 0b11; // Bits of [middle] holding the buffer index
+    private static final int FRESH = 0b100; // Bit of [middle] set when it holds a snapshot not yet read
+
+    private final PopulationSnapshot[] snapshots = {new PopulationSnapshot(), new PopulationSnapshot(), new PopulationSnapshot()};
+    private final AtomicInteger middle = new AtomicInteger(1); // Index of the middle snapshot, plus the FRESH bit
+    private int back = 0; // Snapshot the simulation captures into (Simulation thread only)
+    private int front = 2; // Snapshot the reader draws from (Reading thread only)
+
+    /**
+     * Returns the snapshot to capture the next tick into. Simulation thread only
+     * @return Back snapshot
+     */
+    PopulationSnapshot back() {
+        return this.snapshots[this.back];
+    }
+
+    /**
+     * Publishes the back snapshot for the reader. Simulation thread only
+     */
+    void publish() {
+        this.back = this.middle.getAndSet(this.back | FRESH) & INDEX;
+    }
+
+    /**
+     * Returns the newest published snapshot. Reading thread only
+     * @return Front snapshot. Valid until the next call
+     */
+    PopulationSnapshot latest() {
+        if ((this.middle.get() & FRESH) != 0) {
+            this.front = this.middle.getAndSet(this.front) & INDEX;
+        }
+        return this.snapshots[this.front];
+    }
+}
@@ -1,9 +1,11 @@
 package com.rndash.creatureSim.Species;
 
 import com.rndash.creatureSim.AI.Brain;
-import com.rndash.creatureSim.AI.NeuronConnection;
-import com.rndash.creatureSim.AI.NeuronConnectionHistory;
+import com.rndash.creatureSim.AI.Genome;
+import com.rndash.creatureSim.AI.InnovationSource;
+import com.rndash.creatureSim.AI.RandomSource;
 import com.rndash.creatureSim.Creature;
+import com.rndash.creatureSim.EvolutionConfig;
 
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -20,15 +22,24 @@ public class Species {
     int staleness; // Staleness rating
     Brain representative; // This species champion brain
     double maxTravelled = 0; // Longest time the species could walk for
+    private final ParentSelection selection; // How parents are picked for children
+    private boolean selectionReady = false; // Has [selection] been prepared since the creatures or their fitness last changed
 
-    // TODO - Make these 3 params configurable
-    // This leads to different natural selection behaviour
-    final double execessCoeff = 1;
-    final double weightDiffCoeff = 0.5;
-    final double compatibilityThreshold = 3;
+    final EvolutionConfig config; // Speciation and breeding parameters
 
 
     public Species(Creature c) {
+        this(c, EvolutionConfig.DEFAULT);
+    }
+
+    /**
+     * Creates a new species
+     * @param c First creature of the species, which becomes its representative
+     * @param config Speciation and breeding parameters
+     */
+    public Species(Creature c, EvolutionConfig config) {
+        this.config = config;
+        this.selection = config.selection.create();
         this.creatures = new ArrayList<>();
         this.bestFitness = 0;
         this.averageFitness = 0;
@@ -49,15 +60,81 @@ public class Species {
      * @return Boolean indicating if brains are the same or not, indicating an identical species
      */
     public boolean sameSpecies(Brain b) {
-        double excessAndDisjoint = this.getExcessDisjoint(b, this.representative);
-        double averageWeightDiff = this.averageWeightDiff(b, this.representative);
-        double normaliser = b.connections.size() - 20;
+        return this.sameSpecies(b, null);
+    }
+
+    /**
+     * Check if species are the same based on their brain, reusing a previously computed distance if there is one
+     * @param b Comparison brain
+     * @param cache Cache of distances between genomes. Null to always compute the distance
+     * @return Boolean indicating if brains are the same or not, indicating an identical species
+     */
+    public boolean sameSpecies(Brain b, CompatibilityCache cache) {
+        Genome g1 = b.genome();
+        Genome g2 = this.representative.genome();
+        if (cache == null) {
+            return this.compatibility(g1, g2, this.config.compatibilityThreshold) < this.config.compatibilityThreshold;
+        }
+        Double distance = cache.get(g1, g2);
+        if (distance == null) {
+            // Early exits are only lower bounds, but still on the right side of the threshold
+            distance = this.compatibility(g1, g2, this.config.compatibilityThreshold);
+            cache.put(g1, g2, distance);
+        }
+        return distance < this.config.compatibilityThreshold;
+    }
+
+    /**
+     * Calculates the compatibility distance between 2 genomes in a single merge walk over their genes
+     *
+     * The excess and disjoint count can only grow as the walk goes on, so once it alone puts the
+     * distance at or over [limit] the walk stops early
+     * @param g1 Genome being tested
+     * @param g2 Genome of the species representative
+     * @param limit Distance beyond which the exact value no longer matters
+     * @return The compatibility distance, or a lower bound of it that is at least [limit]
+     */
+    double compatibility(Genome g1, Genome g2, double limit) {
+        double normaliser = g1.size - 20;
         if (normaliser < 1) {
             normaliser = 1;
         }
-
-        double compatibility = (this.execessCoeff * excessAndDisjoint / normaliser) + (this.weightDiffCoeff * averageWeightDiff); //compatibility formula
-        return (this.compatibilityThreshold > compatibility);
+        int i = 0;
+        int j = 0;
+        int matching = 0;
+        double totalDiff = 0;
+        while (i < g1.size && j < g2.size) {
+            int a = g1.innovations[i];
+            int b = g2.innovations[j];
+            if (a == b) {
+                matching++;
+                totalDiff += Math.abs(g1.weights[i] - g2.weights[j]);
+                i++;
+                j++;
+            } else {
+                if (a < b) {
+                    i++;
+                } else {
+                    j++;
+                }
+                // Best case, every gene left over in the shorter genome still matches
+                int bestMatching = matching + Math.min(g1.size - i, g2.size - j);
+                double lowerBound = this.config.excessCoeff * (g1.size + g2.size - 2 * bestMatching) / normaliser;
+                if (lowerBound >= limit) {
+                    return lowerBound;
+                }
+            }
+        }
+        double excessAndDisjoint = g1.size + g2.size - 2 * matching;
+        double averageWeightDiff;
+        if (g1.size == 0 || g2.size == 0) {
+            averageWeightDiff = 0;
+        } else if (matching == 0) { //avoids divide by 0
+            averageWeightDiff = 100;
+        } else {
+            averageWeightDiff = totalDiff / matching;
+        }
+        return (this.config.excessCoeff * excessAndDisjoint / normaliser) + (this.config.weightDiffCoeff * averageWeightDiff); //compatibility formula
     }
 
     /**
@@ -65,6 +142,7 @@ public class Species {
      * @param c Creature to add
      */
     public void addToSpecies(Creature c) {
+        this.selectionReady = false;
         this.creatures.add(c);
     }
 
@@ -75,17 +153,10 @@ public class Species {
      * @return Number of different connections * Total number of connections
      */
     public double getExcessDisjoint(Brain b1, Brain b2) {
-        double matching = 0.0;
-        for (NeuronConnection c1 : b1.connections) {
-            for (NeuronConnection c2 : b2.connections) {
-                if (c1.innovationNumber == c2.innovationNumber) {
-                    matching++;
-                    break;
-                }
-            }
-        }
+        Genome g1 = b1.genome();
+        Genome g2 = b2.genome();
         // -2 needed cause each brain has an additional bias weight
-        return b1.connections.size() + b2.connections.size() - 2 * (matching);
+        return g1.size + g2.size - 2 * matchingGenes(g1, g2);
     }
 
     /**
@@ -95,22 +166,28 @@ public class Species {
      * @return Average differences between the brains' weight
      */
     public double averageWeightDiff(Brain b1, Brain b2) {
+        Genome g1 = b1.genome();
+        Genome g2 = b2.genome();
         // No connections, return 0
-        if (b1.connections.size() == 0 || b2.connections.size() == 0) {
+        if (g1.size == 0 || g2.size == 0) {
             return 0;
         }
 
-
         int matching = 0;
         double totalDiff = 0;
-        for (NeuronConnection c1 : b1.connections) {
-            for (NeuronConnection c2 : b2.connections) {
-                if (c1.innovationNumber == c2.innovationNumber) {
-                    // Matching connection
-                    matching++;
-                    totalDiff += Math.abs(c1.weight - c2.weight);
-                    break;
-                }
+        int i = 0;
+        int j = 0;
+        while (i < g1.size && j < g2.size) {
+            if (g1.innovations[i] == g2.innovations[j]) {
+                // Matching connection
+                matching++;
+                totalDiff += Math.abs(g1.weights[i] - g2.weights[j]);
+                i++;
+                j++;
+            } else if (g1.innovations[i] < g2.innovations[j]) {
+                i++;
+            } else {
+                j++;
             }
         }
         if (matching == 0) { //avoids divide by 0
@@ -119,10 +196,35 @@ public class Species {
         return totalDiff / matching;
     }
 
+    /**
+     * Counts the genes with the same innovation number in both genomes
+     * @param g1 Genome 1
+     * @param g2 Genome 2
+     * @return Number of matching genes
+     */
+    private static int matchingGenes(Genome g1, Genome g2) {
+        int matching = 0;
+        int i = 0;
+        int j = 0;
+        while (i < g1.size && j < g2.size) {
+            if (g1.innovations[i] == g2.innovations[j]) {
+                matching++;
+                i++;
+                j++;
+            } else if (g1.innovations[i] < g2.innovations[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return matching;
+    }
+
     /**
      * Sort this species based on creature ranking
      */
     public void sortSpecies() {
+        this.selectionReady = false;
         this.creatures.sort(new Comparator<Creature>() {
             @Override
             public int compare(Creature o1, Creature o2) {
@@ -151,47 +253,55 @@ public class Species {
 
     /**
      * Make a child creature from a random mother and father
+     * Only reads from the species, so children of the same generation can be made on different threads,
+     * as long as each has its own history and random stream
      * @param history Mutation history
+     * @param random Random number stream
      * @return A new baby creature
      */
-    Creature makeChild(ArrayList<NeuronConnectionHistory> history) {
+    Creature makeChild(InnovationSource history, RandomSource random) {
         Creature baby;
-        // 25% chance the baby will be a twin of an existing creature
-        if (Math.random() < 0.25) {
-            baby = this.selectCreature();
+        // Chance the baby will be a twin of an existing creature
+        if (random.nextDouble() < this.config.cloneRate) {
+            baby = this.selectCreature(random).clone();
         } else {
             // Choose a random mother + father
-            Creature mum = this.selectCreature();
-            Creature dad = this.selectCreature();
+            Creature mum = this.selectCreature(random);
+            Creature dad = this.selectCreature(random);
 
             // crossover the strongest parent with the weakest parent
             // to make the strongest baby possible
             if (mum.fitness < dad.fitness) {
-                baby = dad.crossover(mum);
+                baby = dad.crossover(mum, random);
             } else {
-                baby = mum.crossover(dad);
+                baby = mum.crossover(dad, random);
             }
             // Mutate the baby's brain
-            baby.brain.mutate(history);
+            baby.brain.mutate(history, random, this.config);
         }
         return baby;
     }
 
     /**
-     * Returns a random creature in the species based on a random threshold
+     * Builds the parent selection for this generation
+     * Called once the fitness of the species is final, and before children are made on other threads
+     */
+    void prepareSelection() {
+        this.selection.prepare(this.creatures);
+        this.selectionReady = true;
+    }
+
+    /**
+     * Returns a random creature in the species, picked by the species' selection strategy
+     * @param rng Random number stream
      * @return Random creature
      */
-    public Creature selectCreature() {
-        double fitnessSum = creatures.stream().mapToDouble(c -> c.fitness).sum();
-        double random = Math.random() * fitnessSum;
-        double runningSum = 0;
-        for (Creature c : creatures) {
-            runningSum += c.fitness;
-            if (runningSum > random) {
-                return c;
-            }
+    public Creature selectCreature(RandomSource rng) {
+        if (!this.selectionReady) {
+            this.prepareSelection();
         }
-        return this.creatures.get(0);
+        Creature c = this.selection.select(rng);
+        return c != null ? c : this.creatures.get(0);
     }
 
     /**
@@ -205,6 +315,7 @@ public class Species {
             }
         }
         toRemove.forEach(this.creatures::remove);
+        this.selectionReady = false;
     }
 
     /**
@@ -212,6 +323,7 @@ public class Species {
      * becoming too different
      */
     public void fitnessSharing() {
+        this.selectionReady = false;
         for (Creature c : creatures) {
             c.fitness /= creatures.size();
         }
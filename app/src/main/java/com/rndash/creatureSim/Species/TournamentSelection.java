@@ -0,0 +1,45 @@
+package com.rndash.creatureSim.Species;
+
+import com.rndash.creatureSim.AI.RandomSource;
+import com.rndash.creatureSim.Creature;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tournament selection
+ * Picks a few creatures at random (With replacement) and returns the fittest of them
+ */
+public class TournamentSelection implements ParentSelection {
+    private final ArrayList<Creature> creatures = new ArrayList<>(); // Creatures to pick from
+    private final int size; // Creatures in each tournament
+
+    /**
+     * Creates a tournament selection
+     * @param size Creatures in each tournament. Bigger tournaments favour the fittest more
+     */
+    public TournamentSelection(int size) {
+        this.size = size;
+    }
+
+    @Override
+    public void prepare(List<Creature> creatures) {
+        this.creatures.clear();
+        this.creatures.addAll(creatures);
+    }
+
+    @Override
+    public Creature select(RandomSource random) {
+        if (this.creatures.isEmpty()) {
+            return null;
+        }
+        Creature best = null;
+        for (int i = 0; i < this.size; i++) {
+            Creature c = this.creatures.get(random.nextInt(this.creatures.size()));
+            if (best == null || c.fitness > best.fitness) {
+                best = c;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,68 @@
+package com.rndash.creatureSim;
+
+import com.rndash.creatureSim.Species.Population;
+
+/**
+ * When an evolution run is over: a creature travelled far enough, or the population ran out of
+ * generations or simulated time
+ */
+public final class StopCondition {
+    public final double targetDistance; // Distance (meters) that counts as success. At most Creature.TARGET_DISTANCE
+    public final int maxGenerations; // Generations to give up after
+    public final double maxSimulatedSeconds; // Simulated time to give up after, or 0 for no limit
+
+    /**
+     * Creates a stop condition without a time limit
+     * @param targetDistance Distance (meters) that counts as success
+     * @param maxGenerations Generations to give up after
+     */
+    public StopCondition(double targetDistance, int maxGenerations) {
+        this(targetDistance, maxGenerations, 0);
+    }
+
+    /**
+     * Creates a stop condition
+     * @param targetDistance Distance (meters) that counts as success. The best distance only moves while scores
+     *                       improve, so no more than Creature.TARGET_DISTANCE
+     * @param maxGenerations Generations to give up after
+     * @param maxSimulatedSeconds Simulated time to give up after, or 0 for no limit
+     */
+    public StopCondition(double targetDistance, int maxGenerations, double maxSimulatedSeconds) {
+        if (maxGenerations < 0 || maxSimulatedSeconds < 0) {
+            throw new IllegalArgumentException("Limits can't be negative");
+        }
+        if (targetDistance > Creature.TARGET_DISTANCE) {
+            throw new IllegalArgumentException(String.format("Target of %.1fm can never be reached, scores stop improving at %.1fm",
+                    targetDistance, Creature.TARGET_DISTANCE));
+        }
+        this.targetDistance = targetDistance;
+        this.maxGenerations = maxGenerations;
+        this.maxSimulatedSeconds = maxSimulatedSeconds;
+    }
+
+    /**
+     * Checks if a population has reached the target distance
+     * @param p Population to check
+     * @return True if any creature travelled at least [targetDistance]
+     */
+    public boolean reachedTarget(Population p) {
+        return p.maxTravelled >= this.targetDistance;
+    }
+
+    /**
+     * Checks if a population's run is over
+     * @param p Population to check
+     * @return True if it reached the target, or ran out of generations or time
+     */
+    public boolean isMet(Population p) {
+        return this.reachedTarget(p)
+                || p.batchNo >= this.maxGenerations
+                || (this.maxSimulatedSeconds > 0 && p.getSimulatedMillis() >= this.maxSimulatedSeconds * 1000);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("target=%.1fm generations=%d time=%s", this.targetDistance, this.maxGenerations,
+                this.maxSimulatedSeconds > 0 ? String.format("%.0fs", this.maxSimulatedSeconds) : "unlimited");
+    }
+}
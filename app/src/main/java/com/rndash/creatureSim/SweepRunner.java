@@ -0,0 +1,116 @@
+package com.rndash.creatureSim;
+
+import com.rndash.creatureSim.Species.Population;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Evaluates a set of configurations by evolving an independent population for each, in parallel
+ *
+ * Every population starts from the same seed, so differences between results come from the
+ * configurations rather than luck of the draw. Each is run by a HeadlessRunner, as fast as it can go,
+ * until it reaches the target distance or runs out of generations.
+ */
+public class SweepRunner {
+    private final CreatureBuilder model; // Blueprint every population is made from
+    private final StopCondition stop; // When each population's run is over
+    private final long seed; // Seed of every population
+    private final int threads; // Populations evolved at once
+
+    /**
+     * Result of evolving one configuration
+     */
+    public static final class Result {
+        public final EvolutionConfig config; // Configuration evaluated
+        public final boolean reachedTarget; // Did the population reach the target distance
+        public final int generations; // Generations run. Generations to the target if it was reached
+        public final double bestDistance; // Longest distance travelled (meters)
+        public final long wallMillis; // Wall clock time taken
+
+        Result(EvolutionConfig config, boolean reachedTarget, int generations, double bestDistance, long wallMillis) {
+            this.config = config;
+            this.reachedTarget = reachedTarget;
+            this.generations = generations;
+            this.bestDistance = bestDistance;
+            this.wallMillis = wallMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s generations %d, best %.2f m, %d ms  [%s]",
+                    this.reachedTarget ? "REACHED " : "MISSED  ", this.generations, this.bestDistance, this.wallMillis, this.config);
+        }
+    }
+
+    /**
+     * Creates a sweep runner using every core
+     * @param model Blueprint for all creatures, in its spawn position (See CreatureBuilder.resetPos())
+     * @param targetDistance Distance (meters) that counts as success. At most Creature.TARGET_DISTANCE
+     * @param maxGenerations Generations to give up after
+     * @param seed Seed of every population
+     */
+    public SweepRunner(CreatureBuilder model, double targetDistance, int maxGenerations, long seed) {
+        this(model, targetDistance, maxGenerations, seed, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a sweep runner
+     * @param model Blueprint for all creatures, in its spawn position (See CreatureBuilder.resetPos())
+     * @param targetDistance Distance (meters) that counts as success. At most Creature.TARGET_DISTANCE
+     * @param maxGenerations Generations to give up after
+     * @param seed Seed of every population
+     * @param threads Number of populations to evolve at once
+     */
+    public SweepRunner(CreatureBuilder model, double targetDistance, int maxGenerations, long seed, int threads) {
+        this.model = model;
+        this.stop = new StopCondition(targetDistance, maxGenerations);
+        this.seed = seed;
+        this.threads = threads;
+    }
+
+    /**
+     * Evolves a population for every configuration
+     * @param configs Configurations to evaluate
+     * @return Result of each configuration, in the same order
+     * @throws InterruptedException If interrupted whilst waiting for the populations
+     */
+    public List<Result> run(List<EvolutionConfig> configs) throws InterruptedException {
+        List<Population> populations = new ArrayList<>();
+        for (EvolutionConfig config : configs) {
+            Population p = new Population(this.model, config, this.seed);
+            p.runOnCallerThread(); // The pool already keeps every core busy
+            populations.add(p);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(this.threads);
+        try {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (Population p : populations) {
+                futures.add(pool.submit(() -> this.evolve(p)));
+            }
+            List<Result> results = new ArrayList<>();
+            for (Future<Result> f : futures) {
+                results.add(f.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Population failed to evolve", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Evolves one population until it reaches the target or runs out of generations
+     * @param p Population to evolve
+     * @return Result of the population
+     */
+    private Result evolve(Population p) {
+        HeadlessRunner.Result r = new HeadlessRunner(p, this.stop).run();
+        return new Result(r.config, r.reachedTarget, r.generations, r.bestDistance, r.wallMillis);
+    }
+}
@@ -0,0 +1,49 @@
+package com.rndash.creatureSim.AI;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the activation functions, so precision can be traded for throughput knowingly
+ * Run through EvolutionBenchmarks. The error bounds are checked by ActivationTest
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActivationBenchmark {
+    @Param({"EXACT", "TABLE", "RATIONAL"})
+    public Activation activation; // Activation function to time
+
+    private final double[] inputs = new double[4096];
+
+    @Setup
+    public void build() {
+        // Inputs spread like real neuron input sums
+        for (int i = 0; i < this.inputs.length; i++) {
+            this.inputs[i] = Math.sin(i) * 6;
+        }
+    }
+
+    @Benchmark
+    public double apply() {
+        double sum = 0;
+        for (double x : this.inputs) {
+            sum += this.activation.apply(x);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,41 @@
+package com.rndash.creatureSim.AI;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks each approximate activation stays within its documented error bound, and keeps the shape of the sigmoid
+ */
+public class ActivationTest {
+
+    /**
+     * Max absolute error of an activation against EXACT, sampled over [-40, 40]
+     */
+    private static double maxError(Activation a) {
+        double max = 0;
+        for (double x = -40; x <= 40; x += 0.0005) {
+            max = Math.max(max, Math.abs(a.apply(x) - Activation.EXACT.apply(x)));
+        }
+        return max;
+    }
+
+    @Test
+    public void table_isWithinErrorBound() {
+        assertTrue(maxError(Activation.TABLE) < 3e-6);
+    }
+
+    @Test
+    public void rational_isWithinErrorBound() {
+        assertTrue(maxError(Activation.RATIONAL) < 5.1e-5);
+    }
+
+    @Test
+    public void all_areCenteredSigmoids() {
+        for (Activation a : Activation.values()) {
+            assertEquals(0.5, a.apply(0), 1e-12);
+            assertEquals(0, a.apply(-100), 1e-6);
+            assertEquals(1, a.apply(100), 1e-6);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.rndash.creatureSim.AI;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the brain operations run for every creature, every generation
+ * Run through EvolutionBenchmarks
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BrainBenchmark {
+    static final int INPUTS = 16; // Vision of the test creature (4 nodes)
+    static final int OUTPUTS = 6; // Joints of the test creature
+
+    @Param({"100", "500", "2000"})
+    public int genes; // Connections in each brain
+
+    private InnovationHistory history;
+    private RandomSource random;
+    private Brain mum;
+    private Brain dad;
+    private final double[] in = new double[INPUTS];
+    private final double[] out = new double[OUTPUTS];
+
+    /**
+     * Grows a fully connected brain by adding neurons until it has at least [genes] connections
+     * @param genes Connections wanted
+     * @param history Mutation history
+     * @param random Random number stream
+     * @return New brain, with its network generated
+     */
+    static Brain grow(int genes, InnovationHistory history, RandomSource random) {
+        Brain b = new Brain(INPUTS, OUTPUTS);
+        b.fullyConnect(history, random);
+        while (b.connections.size() < genes) {
+            b.addNode(history, random);
+        }
+        b.generateNetwork();
+        return b;
+    }
+
+    @Setup(Level.Trial)
+    public void build() {
+        this.history = new InnovationHistory();
+        this.random = new RandomSource(1);
+        Brain ancestor = grow(this.genes, this.history, this.random);
+        // 2 parents from the same line, so crossover has matching, disjoint and excess genes to align
+        this.mum = ancestor.clone();
+        this.dad = ancestor.clone();
+        for (int i = 0; i < 5; i++) {
+            this.mum.addNode(this.history, this.random);
+            this.dad.addConnection(this.history, this.random);
+        }
+        this.mum.mutate(this.history, this.random);
+        this.dad.mutate(this.history, this.random);
+        this.mum.generateNetwork();
+        this.dad.generateNetwork();
+        for (int i = 0; i < INPUTS; i++) {
+            this.in[i] = this.random.nextDouble() * 2 - 1;
+        }
+    }
+
+    @Benchmark
+    public double[] feedForward() {
+        this.mum.feedForward(this.in, this.out);
+        return this.out;
+    }
+
+    @Benchmark
+    public Brain crossover() {
+        return this.mum.crossover(this.dad, this.random);
+    }
+
+    @Benchmark
+    public Brain mutate() {
+        // Mutated as a child would be: a fresh clone, with new mutations staged rather than registered
+        Brain child = this.mum.clone();
+        child.mutate(this.history.stage(), this.random);
+        return child;
+    }
+
+    @Benchmark
+    public Brain cloneBrain() {
+        return this.mum.clone();
+    }
+}
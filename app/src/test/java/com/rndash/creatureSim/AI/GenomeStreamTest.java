@@ -0,0 +1,88 @@
+package com.rndash.creatureSim.AI;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks brains survive a round trip through GenomeWriter and GenomeReader
+ */
+public class GenomeStreamTest {
+
+    private static ArrayList<Brain> evolvedBrains() {
+        RandomSource random = new RandomSource(7);
+        InnovationHistory history = new InnovationHistory();
+        ArrayList<Brain> brains = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Brain b = new Brain(12, 4);
+            b.fullyConnect(history, random);
+            for (int m = 0; m < 150; m++) {
+                b.mutate(history, random);
+            }
+            b.generateNetwork();
+            brains.add(b);
+        }
+        return brains;
+    }
+
+    private static ArrayList<Brain> roundTrip(ArrayList<Brain> brains, boolean doubleWeights) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GenomeWriter writer = new GenomeWriter(Channels.newChannel(bytes), doubleWeights);
+        writer.writeAll(brains);
+        writer.close();
+        return new GenomeReader(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray()))).readAll();
+    }
+
+    private static void assertSameBrains(ArrayList<Brain> expected, ArrayList<Brain> actual, double tolerance) {
+        assertEquals(expected.size(), actual.size());
+        double[] in = new double[12];
+        for (int i = 0; i < in.length; i++) {
+            in[i] = Math.sin(i);
+        }
+        for (int b = 0; b < expected.size(); b++) {
+            Brain e = expected.get(b);
+            Brain a = actual.get(b);
+            assertEquals(e.layers, a.layers);
+            assertEquals(e.nextNeuron, a.nextNeuron);
+            assertEquals(e.nodes.size(), a.nodes.size());
+            assertEquals(e.connections.size(), a.connections.size());
+            for (int i = 0; i < e.connections.size(); i++) {
+                NeuronConnection ec = e.connections.get(i);
+                NeuronConnection ac = a.connections.get(i);
+                assertEquals(ec.innovationNumber, ac.innovationNumber);
+                assertEquals(ec.parent.id, ac.parent.id);
+                assertEquals(ec.child.id, ac.child.id);
+                assertEquals(ec.enabled, ac.enabled);
+                assertEquals(ec.weight, ac.weight, tolerance);
+            }
+            double[] eOut = new double[4];
+            double[] aOut = new double[4];
+            e.feedForward(in, eOut);
+            a.feedForward(in, aOut);
+            assertArrayEquals(eOut, aOut, tolerance * 100);
+        }
+    }
+
+    @Test
+    public void doubleWeights_roundTripExactly() throws IOException {
+        ArrayList<Brain> brains = evolvedBrains();
+        assertSameBrains(brains, roundTrip(brains, true), 0);
+    }
+
+    @Test
+    public void floatWeights_roundTripToFloatPrecision() throws IOException {
+        ArrayList<Brain> brains = evolvedBrains();
+        assertSameBrains(brains, roundTrip(brains, false), 1e-7);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherData() throws IOException {
+        new GenomeReader(Channels.newChannel(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5, 6, 7})));
+    }
+}
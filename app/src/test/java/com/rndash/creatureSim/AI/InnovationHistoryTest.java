@@ -0,0 +1,91 @@
+package com.rndash.creatureSim.AI;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks compacting a history forgets only what its policy allows, and never reuses an innovation number
+ */
+public class InnovationHistoryTest {
+
+    private static Brain connected(InnovationHistory history) {
+        Brain b = new Brain(3, 2);
+        b.fullyConnect(history, new RandomSource(1));
+        return b;
+    }
+
+    private static Brain mutated(Brain parent, InnovationHistory history, long seed) {
+        Brain b = parent.clone();
+        RandomSource random = new RandomSource(seed);
+        for (int i = 0; i < 40; i++) {
+            b.mutate(history, random);
+        }
+        return b;
+    }
+
+    private static BitSet genes(Brain... brains) {
+        BitSet genes = new BitSet();
+        for (Brain b : brains) {
+            for (NeuronConnection c : b.connections) {
+                genes.set(c.innovationNumber);
+            }
+        }
+        return genes;
+    }
+
+    @Test
+    public void unused_keepsEveryLivingGene() {
+        InnovationHistory history = new InnovationHistory();
+        Brain a = connected(history);
+        Brain b = mutated(a, history, 2);
+        Brain dead = mutated(a, history, 3);
+        int remembered = history.size();
+
+        int forgotten = history.compact(HistoryCompaction.UNUSED, Arrays.asList(a, b));
+        BitSet living = genes(a, b);
+        assertEquals(living.cardinality(), history.size());
+        assertEquals(remembered - history.size(), forgotten);
+        assertTrue(forgotten > 0);
+        assertFalse(genes(dead).equals(living));
+
+        // The same mutations on a fresh brain still get the numbers the living brains have
+        Brain again = connected(history);
+        assertEquals(genes(a), genes(again));
+        assertEquals(living.cardinality(), history.size());
+    }
+
+    @Test
+    public void generation_forgetsEverything() {
+        InnovationHistory history = new InnovationHistory();
+        Brain a = connected(history);
+        mutated(a, history, 2);
+
+        history.compact(HistoryCompaction.GENERATION, Collections.singletonList(a));
+        assertEquals(0, history.size());
+    }
+
+    @Test
+    public void compact_neverReusesNumbers() {
+        for (HistoryCompaction policy : HistoryCompaction.values()) {
+            InnovationHistory history = new InnovationHistory();
+            Brain a = connected(history);
+            Brain b = mutated(a, history, 2);
+            mutated(a, history, 3);
+            int count = history.innovationCount();
+            BitSet kept = genes(a, b);
+
+            history.compact(policy, Arrays.asList(a, b));
+            assertEquals(count, history.innovationCount());
+            BitSet fresh = genes(mutated(a, history, 3), connected(history));
+            for (int i = fresh.nextSetBit(0); i >= 0; i = fresh.nextSetBit(i + 1)) {
+                // Either still remembered, or a number that has never been handed out before
+                assertTrue(policy + " reused " + i, i >= count || kept.get(i) || policy == HistoryCompaction.NONE);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.rndash.creatureSim.CreatureParts;
+
+import com.rndash.creatureSim.CreatureBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of one physics step of a whole population, body by body and in lock step
+ * Run through EvolutionBenchmarks
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PhysicsBenchmark {
+    @Param({"64", "1000"})
+    public int bodies; // Bodies in the world
+
+    private PhysicsWorld world;
+
+    @Setup(Level.Trial)
+    public void build() {
+        CreatureBuilder model = CreatureBuilder.getTestCerature();
+        this.world = model.newWorld();
+        double[] decision = new double[model.getJointCount()];
+        for (int i = 0; i < this.bodies; i++) {
+            int b = this.world.addBody();
+            model.resetBody(this.world, b);
+            // Some muscles contracting, so the bodies don't just settle
+            for (int j = 0; j < decision.length; j++) {
+                decision[j] = (i + j) % 2;
+            }
+            this.world.setContracting(b, decision, 0);
+        }
+    }
+
+    @Benchmark
+    public PhysicsWorld stepEachBody() {
+        for (int b = 0; b < this.bodies; b++) {
+            this.world.step(b, 20);
+        }
+        return this.world;
+    }
+
+    @Benchmark
+    public PhysicsWorld stepLockStep() {
+        this.world.stepAll(20);
+        return this.world;
+    }
+}
@@ -0,0 +1,85 @@
+package com.rndash.creatureSim.CreatureParts;
+
+import com.rndash.creatureSim.CreatureBuilder;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks stepping bodies in lock step gives exactly what stepping them one at a time does
+ */
+public class PhysicsWorldTest {
+
+    private static PhysicsWorld world(CreatureBuilder model, int bodies) {
+        PhysicsWorld w = model.newWorld();
+        for (int i = 0; i < bodies; i++) {
+            addBody(model, w);
+        }
+        return w;
+    }
+
+    private static void addBody(CreatureBuilder model, PhysicsWorld w) {
+        int b = w.addBody();
+        model.resetBody(w, b);
+        double[] decision = new double[model.getJointCount()];
+        for (int j = 0; j < decision.length; j++) {
+            decision[j] = (b + j) % 3 / 2.0;
+        }
+        w.setContracting(b, decision, 0);
+    }
+
+    private static void assertSameBodies(PhysicsWorld expected, PhysicsWorld actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int b = 0; b < expected.size(); b++) {
+            for (int i = 0; i < expected.nodesPerBody; i++) {
+                Node e = expected.nodes(b).get(i);
+                Node a = actual.nodes(b).get(i);
+                assertEquals(e.getX(), a.getX(), 0);
+                assertEquals(e.getY(), a.getY(), 0);
+                assertEquals(e.getVelocityX(), a.getVelocityX(), 0);
+                assertEquals(e.getVelocityY(), a.getVelocityY(), 0);
+            }
+        }
+    }
+
+    @Test
+    public void lockStep_matchesEachBody() {
+        CreatureBuilder model = CreatureBuilder.getTestCerature();
+        PhysicsWorld each = world(model, 10);
+        PhysicsWorld lockStep = world(model, 10);
+        for (int s = 0; s < 200; s++) {
+            for (int b = 0; b < each.size(); b++) {
+                each.step(b, 20);
+            }
+            lockStep.stepAll(20);
+        }
+        assertSameBodies(each, lockStep);
+    }
+
+    @Test
+    public void growing_keepsBodies() {
+        CreatureBuilder model = CreatureBuilder.getTestCerature();
+        PhysicsWorld grown = world(model, 3);
+        PhysicsWorld whole = world(model, 3);
+        for (int s = 0; s < 50; s++) {
+            grown.stepAll(20);
+            whole.stepAll(20);
+        }
+        // Enough bodies to move every row of the matrix, so the first 3 must come through unchanged
+        Node before = grown.nodes(2).get(1);
+        for (int i = 0; i < 20; i++) {
+            addBody(model, grown);
+        }
+        assertSame(before, grown.nodes(2).get(1));
+        for (int s = 0; s < 50; s++) {
+            grown.stepRange(0, 3, 20);
+            whole.stepAll(20);
+        }
+        for (int b = 0; b < 3; b++) {
+            for (int i = 0; i < model.getNodeCount(); i++) {
+                assertEquals(whole.nodes(b).get(i).getX(), grown.nodes(b).get(i).getX(), 0);
+                assertEquals(whole.nodes(b).get(i).getY(), grown.nodes(b).get(i).getY(), 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.rndash.creatureSim;
+
+import org.junit.Assume;
+import org.junit.Test;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks of the evolution (ActivationBenchmark, BrainBenchmark, SpeciesBenchmark, PopulationBenchmark and PhysicsBenchmark)
+ *
+ * Skipped in normal test runs. To run them on the development machine:
+ *     ./gradlew testDebugUnitTest --tests '*EvolutionBenchmarks' -Djmh=
+ * -Djmh takes a regex of the benchmarks to run (Empty for all of them), such as -Djmh=BrainBenchmark.feedForward
+ * Results are also written to app/build/jmh-result.json, to compare before and after a change
+ */
+public class EvolutionBenchmarks {
+    @Test
+    public void run() throws RunnerException {
+        String include = System.getProperty("jmh");
+        Assume.assumeTrue("Pass -Djmh=<regex> to run the benchmarks", include != null);
+        run(include);
+    }
+
+    /**
+     * Runs the benchmarks matching a regex
+     * @param include Regex of the benchmarks to run. Empty for all of them
+     * @throws RunnerException If a benchmark failed
+     */
+    static void run(String include) throws RunnerException {
+        // Forked benchmark JVMs are given the classpath of this one, which isn't the test classpath under Gradle
+        String classpath = System.getProperty("jmh.classpath");
+        if (classpath != null) {
+            System.setProperty("java.class.path", classpath);
+        }
+        new Runner(new OptionsBuilder()
+                .include(include.isEmpty() ? "com\\.rndash\\.creatureSim\\..*Benchmark\\." : include)
+                .resultFormat(ResultFormatType.JSON)
+                .result("build/jmh-result.json")
+                .build()).run();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        run(args.length > 0 ? args[0] : "");
+    }
+}
@@ -0,0 +1,41 @@
+package com.rndash.creatureSim;
+
+import com.rndash.creatureSim.Species.Population;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks headless runs stop where they should, and replay the clocked simulation
+ */
+public class HeadlessRunnerTest {
+
+    @Test
+    public void stopsAtGenerationLimit_andMatchesTicking() {
+        Population ticked = TestPopulations.serial(20, 9);
+        while (ticked.batchNo < 2) {
+            ticked.simulationTick();
+        }
+        Population headless = TestPopulations.serial(20, 9);
+        HeadlessRunner.Result r = new HeadlessRunner(headless, new StopCondition(Creature.TARGET_DISTANCE, 2)).run();
+        assertFalse(r.reachedTarget);
+        assertEquals(2, r.generations);
+        assertEquals(ticked.maxTravelled, r.bestDistance, 0);
+        assertEquals(ticked.getSimulatedMillis(), r.simulatedMillis);
+        assertEquals(r.steps * headless.config.physicsStepMillis, r.simulatedMillis);
+        assertTrue(headless.publishSnapshots);
+    }
+
+    @Test
+    public void stopsAtTimeLimit() {
+        Population p = TestPopulations.serial(20, 9);
+        HeadlessRunner.Result r = new HeadlessRunner(p, new StopCondition(Creature.TARGET_DISTANCE, 1000, 30)).run();
+        assertEquals(30000, r.simulatedMillis);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unreachableTarget_isRejected() {
+        // Scores stop improving at the target distance, so the best distance can't get far past it
+        new StopCondition(Creature.TARGET_DISTANCE * 10, 10);
+    }
+}
@@ -0,0 +1,71 @@
+package com.rndash.creatureSim.Species;
+
+import com.rndash.creatureSim.AI.Brain;
+import com.rndash.creatureSim.AI.Genome;
+import com.rndash.creatureSim.AI.InnovationHistory;
+import com.rndash.creatureSim.AI.RandomSource;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the compatibility cache finds unchanged pairs, stays within its capacity and counts its lookups
+ */
+public class CompatibilityCacheTest {
+
+    private static Brain brain(InnovationHistory history, long seed) {
+        Brain b = new Brain(3, 2);
+        b.fullyConnect(history, new RandomSource(seed));
+        return b;
+    }
+
+    @Test
+    public void unchangedPair_hits() {
+        InnovationHistory history = new InnovationHistory();
+        Brain creature = brain(history, 1);
+        Brain representative = brain(history, 2);
+        CompatibilityCache cache = new CompatibilityCache(64);
+
+        assertNull(cache.get(creature.genome(), representative.genome()));
+        cache.put(creature.genome(), representative.genome(), 1.5);
+        // A clone has the same genes, so the same genome hash
+        assertEquals(1.5, cache.get(creature.clone().genome(), representative.genome()), 0);
+        // The distance is not symmetric
+        assertNull(cache.get(representative.genome(), creature.genome()));
+
+        creature.mutate(history, new RandomSource(3));
+        assertNull(cache.get(creature.genome(), representative.genome()));
+    }
+
+    @Test
+    public void evictsPastCapacity() {
+        InnovationHistory history = new InnovationHistory();
+        Genome representative = brain(history, 0).genome();
+        CompatibilityCache cache = new CompatibilityCache(64);
+        Genome first = brain(history, 1).genome();
+        cache.put(first, representative, 1);
+        for (int i = 2; i < 1000; i++) {
+            cache.put(brain(history, i).genome(), representative, i);
+            assertTrue(cache.size() <= cache.capacity);
+        }
+        assertNull(cache.get(first, representative));
+    }
+
+    @Test
+    public void countsHitsAndMisses() {
+        InnovationHistory history = new InnovationHistory();
+        Genome g1 = brain(history, 1).genome();
+        Genome g2 = brain(history, 2).genome();
+        CompatibilityCache cache = new CompatibilityCache(64);
+        assertEquals(0, cache.getHitRate(), 0);
+
+        cache.get(g1, g2);
+        cache.put(g1, g2, 0.5);
+        cache.get(g1, g2);
+        cache.get(g1, g2);
+        cache.get(g2, g1);
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(0.5, cache.getHitRate(), 0);
+    }
+}
@@ -0,0 +1,47 @@
+package com.rndash.creatureSim.Species;
+
+import com.rndash.creatureSim.AI.RandomSource;
+import com.rndash.creatureSim.TestPopulations;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks a population evolves the same however real time is handed to it
+ */
+public class FixedTimestepTest {
+
+    @Test
+    public void jitteredFrames_matchFixedSteps() {
+        Population fixed = TestPopulations.serial(20, 5);
+        long steps = 0;
+        while (fixed.batchNo < 2) {
+            fixed.simulationTick();
+            steps++;
+        }
+
+        Population jittered = TestPopulations.serial(20, 5);
+        RandomSource frames = new RandomSource(11);
+        long jitteredSteps = 0;
+        while (jittered.batchNo < 2) {
+            jitteredSteps += jittered.advance(frames.nextInt(70));
+        }
+
+        assertEquals(steps, jitteredSteps);
+        assertEquals(fixed.maxTravelled, jittered.maxTravelled, 0);
+        assertEquals(fixed.history.innovationCount(), jittered.history.innovationCount());
+    }
+
+    @Test
+    public void advance_keepsPartialSteps() {
+        Population p = TestPopulations.serial(20, 5);
+        assertEquals(0, p.advance(15));
+        assertEquals(1, p.advance(10));
+        // 5ms were left over, so 15ms more make up exactly one step
+        assertEquals(1, p.advance(15));
+        assertEquals(0, p.advance(19));
+        assertEquals(1, p.advance(1));
+        // A long stall only catches up a bounded amount
+        assertTrue(p.advance(10000) < 10000 / p.config.physicsStepMillis);
+    }
+}
@@ -0,0 +1,53 @@
+package com.rndash.creatureSim.Species;
+
+import com.rndash.creatureSim.TestPopulations;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks stepping the alive creatures in parallel chunks, or in lock step, gives the same run as stepping them one by one
+ */
+public class ParallelPhysicsTest {
+
+    private static Population population(boolean parallel, boolean lockStep, boolean batched) {
+        // Big enough for several chunks
+        Population p = TestPopulations.serial(100, 4);
+        p.parallelPhysics = parallel;
+        p.lockStepPhysics = lockStep;
+        p.batchedInference = batched;
+        return p;
+    }
+
+    private static void assertSameRun(boolean lockStep, boolean batched) {
+        Population serial = population(false, false, batched);
+        Population parallel = population(true, lockStep, batched);
+        while (serial.batchNo < 2) {
+            serial.simulationTick();
+            parallel.simulationTick();
+            assertEquals(serial.maxTravelled, parallel.maxTravelled, 0);
+            assertEquals(serial.currentBest == null, parallel.currentBest == null);
+            if (serial.currentBest != null) {
+                assertEquals(serial.creatures.indexOf(serial.currentBest), parallel.creatures.indexOf(parallel.currentBest));
+            }
+        }
+        assertEquals(serial.batchNo, parallel.batchNo);
+        assertEquals(serial.history.innovationCount(), parallel.history.innovationCount());
+    }
+
+    @Test
+    public void batched_matchesSerial() {
+        assertSameRun(false, true);
+    }
+
+    @Test
+    public void perCreature_matchesSerial() {
+        assertSameRun(false, false);
+    }
+
+    @Test
+    public void lockStep_matchesSerial() {
+        assertSameRun(true, true);
+        assertSameRun(true, false);
+    }
+}
@@ -0,0 +1,40 @@
+package com.rndash.creatureSim.Species;
+
+import com.rndash.creatureSim.TestPopulations;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks breeding children on all cores gives the same generations as breeding them one by one
+ */
+public class ParallelReproductionTest {
+
+    private static Population evolve(boolean parallel) {
+        Population p = TestPopulations.serial(60, 12);
+        p.parallelReproduction = parallel;
+        while (p.batchNo < 4) {
+            p.simulationTick();
+        }
+        return p;
+    }
+
+    private static byte[] genomes(Population p) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        p.writeGenomes(Channels.newChannel(bytes), true);
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void parallel_matchesSerial() throws IOException {
+        Population serial = evolve(false);
+        Population parallel = evolve(true);
+        assertEquals(serial.generation, parallel.generation);
+        assertEquals(serial.history.innovationCount(), parallel.history.innovationCount());
+        assertArrayEquals(genomes(serial), genomes(parallel));
+    }
+}
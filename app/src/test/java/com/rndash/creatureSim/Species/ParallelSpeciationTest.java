@@ -0,0 +1,54 @@
+package com.rndash.creatureSim.Species;
+
+import com.rndash.creatureSim.CreatureBuilder;
+import com.rndash.creatureSim.EvolutionConfig;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks comparing creatures against the species on all cores gives the same species as comparing them one by one
+ */
+public class ParallelSpeciationTest {
+
+    private static Population evolve(boolean parallel) {
+        // A tight threshold, so there are plenty of species to be sorted into
+        EvolutionConfig config = EvolutionConfig.DEFAULT.toBuilder().populationSize(60).compatibilityThreshold(0.3).build();
+        Population p = new Population(CreatureBuilder.getTestCerature(), config, 21);
+        p.parallelReproduction = false;
+        p.parallelSpeciation = parallel;
+        while (p.batchNo < 4) {
+            p.simulationTick();
+        }
+        p.speciate();
+        return p;
+    }
+
+    private static byte[] genomes(Population p) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        p.writeGenomes(Channels.newChannel(bytes), true);
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void parallel_matchesSerial() throws IOException {
+        Population serial = evolve(false);
+        Population parallel = evolve(true);
+        assertEquals(serial.generation, parallel.generation);
+        assertTrue(serial.species.size() > 1);
+        assertEquals(serial.species.size(), parallel.species.size());
+        for (int s = 0; s < serial.species.size(); s++) {
+            Species expected = serial.species.get(s);
+            Species actual = parallel.species.get(s);
+            assertEquals(expected.creatures.size(), actual.creatures.size());
+            for (int i = 0; i < expected.creatures.size(); i++) {
+                assertEquals(serial.creatures.indexOf(expected.creatures.get(i)), parallel.creatures.indexOf(actual.creatures.get(i)));
+            }
+        }
+        assertArrayEquals(genomes(serial), genomes(parallel));
+    }
+}
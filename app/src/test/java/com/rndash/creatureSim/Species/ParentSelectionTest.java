@@ -0,0 +1,78 @@
+package com.rndash.creatureSim.Species;
+
+import com.rndash.creatureSim.AI.RandomSource;
+import com.rndash.creatureSim.Creature;
+import com.rndash.creatureSim.CreatureBuilder;
+import com.rndash.creatureSim.EvolutionConfig;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks each parent selection strategy picks creatures as often as it should
+ */
+public class ParentSelectionTest {
+    private static final int DRAWS = 100000;
+
+    private static ArrayList<Creature> creatures(double... fitness) {
+        RandomSource random = new RandomSource(1);
+        CreatureBuilder model = CreatureBuilder.getTestCerature();
+        ArrayList<Creature> creatures = new ArrayList<>();
+        for (double f : fitness) {
+            Creature c = new Creature(model, random, EvolutionConfig.DEFAULT, null);
+            c.fitness = f;
+            creatures.add(c);
+        }
+        return creatures;
+    }
+
+    /**
+     * Share of the draws that picked each creature
+     */
+    private static double[] frequencies(ParentSelection selection, ArrayList<Creature> creatures) {
+        selection.prepare(creatures);
+        RandomSource random = new RandomSource(3);
+        double[] picked = new double[creatures.size()];
+        for (int i = 0; i < DRAWS; i++) {
+            Creature c = selection.select(random);
+            assertNotNull(c);
+            picked[creatures.indexOf(c)]++;
+        }
+        for (int i = 0; i < picked.length; i++) {
+            picked[i] /= DRAWS;
+        }
+        return picked;
+    }
+
+    @Test
+    public void roulette_isProportionalToFitness() {
+        double[] f = frequencies(new RouletteSelection(), creatures(1, 2, 3, 100));
+        assertArrayEquals(new double[] {1 / 106.0, 2 / 106.0, 3 / 106.0, 100 / 106.0}, f, 0.01);
+    }
+
+    @Test
+    public void rank_isProportionalToRank() {
+        // Fittest has weight 4 of 10, however much fitter it is
+        double[] f = frequencies(new RankSelection(), creatures(3, 1, 100, 2));
+        assertArrayEquals(new double[] {0.3, 0.1, 0.4, 0.2}, f, 0.01);
+    }
+
+    @Test
+    public void tournament_picksBestOfDraws() {
+        // Best of 3 draws with replacement: P(rank i of 4) = (i/4)^3 - ((i-1)/4)^3
+        double[] f = frequencies(new TournamentSelection(3), creatures(1, 2, 3, 100));
+        assertArrayEquals(new double[] {1 / 64.0, 7 / 64.0, 19 / 64.0, 37 / 64.0}, f, 0.01);
+    }
+
+    @Test
+    public void zeroFitness_stillPicksParents() {
+        ArrayList<Creature> creatures = creatures(0, 0, 0, 0);
+        // Nothing to weigh by, so roulette falls back to the first creature
+        assertArrayEquals(new double[] {1, 0, 0, 0}, frequencies(new RouletteSelection(), creatures), 0);
+        // Ties keep their order, so ranks still spread the picks
+        assertArrayEquals(new double[] {0.4, 0.3, 0.2, 0.1}, frequencies(new RankSelection(), creatures), 0.01);
+        assertArrayEquals(new double[] {0.25, 0.25, 0.25, 0.25}, frequencies(new TournamentSelection(3), creatures), 0.01);
+    }
+}
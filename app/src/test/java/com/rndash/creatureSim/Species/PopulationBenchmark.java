@@ -0,0 +1,98 @@
+package com.rndash.creatureSim.Species;
+
+import com.rndash.creatureSim.AI.Brain;
+import com.rndash.creatureSim.AI.InnovationHistory;
+import com.rndash.creatureSim.AI.RandomSource;
+import com.rndash.creatureSim.Creature;
+import com.rndash.creatureSim.CreatureBuilder;
+import com.rndash.creatureSim.EvolutionConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the work done at each generation boundary
+ * Each invocation works on a freshly scored generation, and naturalSelection() moves the population
+ * on a generation, as it would in a real run. Run through EvolutionBenchmarks
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PopulationBenchmark {
+    @Param({"50", "200", "1000"})
+    public int population; // Creatures in the population
+
+    @Param({"100", "500"})
+    public int genes; // Connections in each brain
+
+    private Population p;
+    private RandomSource scores;
+
+    /**
+     * Grows a fully connected brain for a blueprint by adding neurons until it has at least [genes] connections
+     * @param model Blueprint the brain is for
+     * @param genes Connections wanted
+     * @param history Mutation history
+     * @param random Random number stream
+     * @return New brain, with its network generated
+     */
+    static Brain grow(CreatureBuilder model, int genes, InnovationHistory history, RandomSource random) {
+        Brain b = new Brain(model.getNodeCount() * 4, model.getJointCount());
+        b.fullyConnect(history, random);
+        while (b.connections.size() < genes) {
+            b.addNode(history, random);
+        }
+        b.generateNetwork();
+        return b;
+    }
+
+    @Setup(Level.Trial)
+    public void build() {
+        EvolutionConfig config = EvolutionConfig.DEFAULT.toBuilder().populationSize(this.population).build();
+        this.p = new Population(CreatureBuilder.getTestCerature(), config, 1);
+        this.scores = new RandomSource(2);
+        // Every creature descends from one ancestor with its own weights, so they fall into a few species
+        RandomSource random = new RandomSource(3);
+        Brain ancestor = grow(this.p.model, this.genes, this.p.history, random);
+        EvolutionConfig weightsOnly = config.toBuilder().weightMutationRate(1).addConnectionRate(0).addNodeRate(0).build();
+        for (Creature c : this.p.creatures) {
+            c.brain = ancestor.clone();
+            c.brain.mutate(this.p.history, random, weightsOnly);
+            c.brain.generateNetwork();
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void score() {
+        for (Creature c : this.p.creatures) {
+            c.lifespan = 100;
+            c.score = this.scores.nextDouble();
+        }
+    }
+
+    @Benchmark
+    public Population speciate() {
+        this.p.speciate();
+        return this.p;
+    }
+
+    @Benchmark
+    public Population naturalSelection() {
+        this.p.naturalSelection();
+        return this.p;
+    }
+}
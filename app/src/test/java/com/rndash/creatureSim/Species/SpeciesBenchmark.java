@@ -0,0 +1,66 @@
+package com.rndash.creatureSim.Species;
+
+import com.rndash.creatureSim.AI.Brain;
+import com.rndash.creatureSim.AI.InnovationHistory;
+import com.rndash.creatureSim.AI.RandomSource;
+import com.rndash.creatureSim.Creature;
+import com.rndash.creatureSim.CreatureBuilder;
+import com.rndash.creatureSim.EvolutionConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of comparing a brain against a species' representative
+ * Run through EvolutionBenchmarks
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpeciesBenchmark {
+    @Param({"100", "500", "2000"})
+    public int genes; // Connections in each brain
+
+    private Species species;
+    private Brain close; // Brain that belongs to the species
+    private Brain distant; // Brain that doesn't, so the walk can stop early
+
+    @Setup(Level.Trial)
+    public void build() {
+        InnovationHistory history = new InnovationHistory();
+        RandomSource random = new RandomSource(1);
+        CreatureBuilder model = CreatureBuilder.getTestCerature();
+        Brain ancestor = PopulationBenchmark.grow(model, this.genes, history, random);
+        this.species = new Species(new Creature(model, random, EvolutionConfig.DEFAULT, ancestor.clone()));
+        this.close = ancestor.clone();
+        this.close.mutate(history, random);
+        this.distant = PopulationBenchmark.grow(model, this.genes, history, random);
+        // Genomes are built on first use and kept, as they are during speciation
+        this.close.genome();
+        this.distant.genome();
+    }
+
+    @Benchmark
+    public boolean sameSpecies() {
+        return this.species.sameSpecies(this.close);
+    }
+
+    @Benchmark
+    public boolean differentSpecies() {
+        return this.species.sameSpecies(this.distant);
+    }
+}
@@ -0,0 +1,23 @@
+package com.rndash.creatureSim;
+
+import com.rndash.creatureSim.Species.Population;
+
+/**
+ * Populations for tests to evolve. Speciation and reproduction stay on one thread unless a test turns them on
+ */
+public final class TestPopulations {
+    private TestPopulations() {}
+
+    /**
+     * Creates a population of test creatures
+     * @param size Number of creatures
+     * @param seed Seed of the population's random stream
+     * @return The population
+     */
+    public static Population serial(int size, long seed) {
+        Population p = new Population(CreatureBuilder.getTestCerature(), EvolutionConfig.DEFAULT.toBuilder().populationSize(size).build(), seed);
+        p.parallelSpeciation = false;
+        p.parallelReproduction = false;
+        return p;
+    }
+}